@@ -33,9 +33,15 @@ import com.gmail.socraticphoenix.jaisbal.encode.JAISBaLCharPage;
 import com.gmail.socraticphoenix.jaisbal.encode.JAISBaLCharset;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.SecurityMonitor;
+import com.gmail.socraticphoenix.jaisbal.program.engine.Engine;
+import com.gmail.socraticphoenix.jaisbal.program.engine.compiled.CompiledEngine;
+import com.gmail.socraticphoenix.jaisbal.program.engine.tree.TreeEngine;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ConstantInstruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization.ParallelVectorization;
 import com.gmail.socraticphoenix.plasma.file.jlsc.JLSCException;
 import com.gmail.socraticphoenix.plasma.math.PlasmaMathUtil;
 import com.gmail.socraticphoenix.plasma.reflection.util.PlasmaReflectionUtil;
@@ -154,7 +160,24 @@ public class JAISBaL {
                         gui = "gui".equals(args.get("mode"));
 
                         String mode = args.get("mode");
-                        if (modes.containsKey(mode)) {
+                        String engine = args.get("engine");
+                        Map<String, Engine> engines = JAISBaL.engines();
+                        String memoize = args.get("memoize");
+                        String parallelism = args.get("parallelism");
+                        String threshold = args.get("parallel-threshold");
+                        if (!engines.containsKey(engine)) {
+                            JAISBaL.getOut().println("Unknown engine \"" + engine + "\"");
+                        } else if (!memoize.matches("[0-9]{1,9}")) {
+                            JAISBaL.getOut().println("Invalid memoize size \"" + memoize + "\"");
+                        } else if (!parallelism.matches("[1-9][0-9]{0,3}")) {
+                            JAISBaL.getOut().println("Invalid parallelism \"" + parallelism + "\"");
+                        } else if (!threshold.matches("[0-9]{1,9}")) {
+                            JAISBaL.getOut().println("Invalid parallel threshold \"" + threshold + "\"");
+                        } else if (modes.containsKey(mode)) {
+                            FunctionContext.setEngine(engines.get(engine));
+                            Function.setCacheSize(Integer.parseInt(memoize));
+                            ParallelVectorization.setParallelism(Integer.parseInt(parallelism));
+                            ParallelVectorization.setThreshold(Integer.parseInt(threshold));
                             modes.get(mode).accept(args);
                         } else {
                             JAISBaL.getOut().println("Unknown mode \"" + mode + "\"");
@@ -223,6 +246,14 @@ public class JAISBaL {
         }};
     }
 
+    public static Map<String, Engine> engines() {
+        return new HashMap<String, Engine>() {{
+            put("interpreter", Engine.INTERPRETER);
+            put("tree", new TreeEngine());
+            put("compiled", new CompiledEngine());
+        }};
+    }
+
     public static void collectAndPrintInfo(Program program) throws JAISBaLExecutionException {
         String source = program.getContent();
         if (JAISBaLCharset.getCharset().newEncoder().canEncode(source)) {
@@ -249,6 +280,10 @@ public class JAISBaL {
             put("target-encoding", "JAISBAL");
             put("resource", "false");
             put("exec-number", "1");
+            put("engine", "interpreter");
+            put("memoize", "0");
+            put("parallelism", String.valueOf(Runtime.getRuntime().availableProcessors()));
+            put("parallel-threshold", "100000");
         }};
     }
 
@@ -337,12 +372,13 @@ public class JAISBaL {
 
         InstructionRegistry.checkDuplicates();
         InstructionRegistry.checkIds();
+        InstructionRegistry.freeze();
     }
 
 
 
     private static boolean isAllowable(char c) {
-        return Program.CONTROL_CHARACTERS.indexOf(c) == -1 && !InstructionRegistry.getAccessibleInstructions().stream().filter(z -> z.getId() == c).findFirst().isPresent();
+        return Program.CONTROL_CHARACTERS.indexOf(c) == -1 && !InstructionRegistry.getInstruction(c).isPresent();
     }
 
     public static void generateCodePages() throws IOException {
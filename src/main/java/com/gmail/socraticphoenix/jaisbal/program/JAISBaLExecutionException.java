@@ -22,7 +22,11 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program;
 
+import java.util.function.Supplier;
+
 public class JAISBaLExecutionException extends Exception {
+    private Supplier<String> messageSupplier;
+    private String message;
 
     public JAISBaLExecutionException() {
         super();
@@ -44,4 +48,21 @@ public class JAISBaLExecutionException extends Exception {
         super(message, cause, enableSuppression, writableStackTrace);
     }
 
+    //No stack trace, and the message is only built if it's asked for. Used for the per instruction wrapping, where the cause holds the useful trace
+    public JAISBaLExecutionException(Supplier<String> message, Throwable cause) {
+        super(null, cause, false, false);
+        this.messageSupplier = message;
+    }
+
+    @Override
+    public String getMessage() {
+        if (this.messageSupplier != null) {
+            if (this.message == null) {
+                this.message = this.messageSupplier.get();
+            }
+            return this.message;
+        }
+        return super.getMessage();
+    }
+
 }
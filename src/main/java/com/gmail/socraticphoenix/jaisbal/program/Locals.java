@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program;
+
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Local variables, small non-negative indices live in an array and everything else in a sparse map
+public class Locals extends PlasmaObject {
+    public static final int DENSE_LIMIT = 1024;
+
+    private CastableValue[] dense;
+    private Map<Long, CastableValue> sparse;
+    private long[] order; //indices in the order they were first stored, for toMap()
+    private int size;
+
+    public Locals() {
+        this.dense = new CastableValue[8];
+        this.order = new long[8];
+        this.size = 0;
+    }
+
+    private static boolean isDense(long index) {
+        return index >= 0 && index < Locals.DENSE_LIMIT;
+    }
+
+    public CastableValue get(long index) {
+        if (Locals.isDense(index)) {
+            return index < this.dense.length ? this.dense[(int) index] : null;
+        } else {
+            return this.sparse == null ? null : this.sparse.get(index);
+        }
+    }
+
+    public boolean containsKey(long index) {
+        return this.get(index) != null;
+    }
+
+    public void put(long index, CastableValue value) {
+        CastableValue previous;
+        if (Locals.isDense(index)) {
+            if (index >= this.dense.length) {
+                this.dense = Arrays.copyOf(this.dense, (int) Math.min(Locals.DENSE_LIMIT, Math.max(index + 1, this.dense.length * 2L)));
+            }
+            previous = this.dense[(int) index];
+            this.dense[(int) index] = value;
+        } else {
+            if (this.sparse == null) {
+                this.sparse = new HashMap<>();
+            }
+            previous = this.sparse.put(index, value);
+        }
+
+        if (previous == null) {
+            if (this.size == this.order.length) {
+                this.order = Arrays.copyOf(this.order, this.size * 2);
+            }
+            this.order[this.size++] = index;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            if (Locals.isDense(this.order[i])) {
+                this.dense[(int) this.order[i]] = null;
+            }
+        }
+        this.sparse = null;
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    //Insertion ordered copy, the same order the locals were stored in
+    public Map<Long, CastableValue> toMap() {
+        Map<Long, CastableValue> map = new LinkedHashMap<>();
+        for (int i = 0; i < this.size; i++) {
+            map.put(this.order[i], this.get(this.order[i]));
+        }
+        return map;
+    }
+
+}
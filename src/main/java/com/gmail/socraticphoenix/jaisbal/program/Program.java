@@ -43,7 +43,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Stack;
 import java.util.stream.Collectors;
 
 public class Program extends PlasmaObject {
@@ -87,6 +86,7 @@ public class Program extends PlasmaObject {
     private Map<String, Function> snippets;
     private List<String> imported;
     private boolean verbose;
+    private int version; //bumped whenever functions or snippets are added, see DecodedInstruction#getTarget
 
     public Program(Function main, List<Function> functions, List<Function> snippets, String content, boolean verbose, boolean importSystem) throws JAISBaLExecutionException {
         this.main = main;
@@ -126,7 +126,7 @@ public class Program extends PlasmaObject {
     }
 
     public static void checkUnderflow(int needed, FunctionContext context) throws JAISBaLExecutionException {
-        if (context.getStack().size() < needed) {
+        if (!context.isChecked() && context.getStack().size() < needed) {
             if (context.isImplicitInput()) {
                 while (context.getStack().size() < needed) {
                     Type type = Type.WILDCARD;
@@ -252,6 +252,7 @@ public class Program extends PlasmaObject {
         Program p = new Program(Function.parse("main:" + (Type.hasTypeNext(s2) ? "" : "i") + main.toString(), verbose), functions, snippets, normalContent, verbose, importSystem);
         p.parse();
         p.verify();
+        p.optimize();
         p.prep();
         return p;
     }
@@ -268,6 +269,10 @@ public class Program extends PlasmaObject {
         return this.imported;
     }
 
+    public int getVersion() {
+        return this.version;
+    }
+
     public void $import(String name, String content, boolean importSystem) throws JAISBaLExecutionException {
         if (!this.imported.contains(name)) {
             try {
@@ -276,6 +281,7 @@ public class Program extends PlasmaObject {
                 parsed.getFunctions().entrySet().stream().filter(f -> !f.getKey().contains(".")).forEach(f -> this.functions.put(name + "." + f.getKey(), f.getValue()));
                 parsed.getSnippets().entrySet().stream().filter(f -> !f.getKey().contains(".")).forEach(f -> this.snippets.put(name + "." + f.getKey(), f.getValue()));
                 this.imported.add(name);
+                this.version++;
             } catch (Throwable e) {
                 throw new JAISBaLExecutionException("Invalid state: error while importing \"" + name + "\"", e);
             }
@@ -286,7 +292,7 @@ public class Program extends PlasmaObject {
         if (this.functions.containsKey("prep")) {
             Function function = this.functions.get("prep");
             if (function.getParameters().size() == 0) {
-                function.run(new Stack<>());
+                function.run(new ValueStack());
             } else {
                 throw new JAISBaLExecutionException("Invalid state: prep method may not have arguments");
             }
@@ -391,6 +397,16 @@ public class Program extends PlasmaObject {
         }
     }
 
+    public void optimize() throws JAISBaLExecutionException {
+        this.main.optimize();
+        for (Function f : this.functions.values()) {
+            f.optimize();
+        }
+        for (Function s : this.snippets.values()) {
+            s.optimize();
+        }
+    }
+
     public String toString() {
         return this.content;
     }
@@ -32,12 +32,19 @@ public class SecurityMonitor {
     }
 
     public void monitor(Instruction instruction) throws JAISBaLExecutionException {
-        int test = instruction.getDangerLevel();
-        if(test >= level) {
-            throw new JAISBaLExecutionException("The security monitor denied execution of instruction \"" + instruction.getMainAlias() + "\" (max danger-level: " + this.level + ", instruction danger-level: " + instruction.getDangerLevel() + ")");
+        if(!this.permits(instruction)) {
+            throw new JAISBaLExecutionException(this.denial(instruction));
         }
     }
 
+    public String denial(Instruction instruction) {
+        return "The security monitor denied execution of instruction \"" + instruction.getMainAlias() + "\" (max danger-level: " + this.level + ", instruction danger-level: " + instruction.getDangerLevel() + ")";
+    }
+
+    public boolean permits(Instruction instruction) {
+        return instruction.getDangerLevel() < this.level;
+    }
+
     public int getLevel() {
         return this.level;
     }
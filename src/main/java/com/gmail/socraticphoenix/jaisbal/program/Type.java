@@ -22,6 +22,7 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program;
 
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
 import com.gmail.socraticphoenix.plasma.math.PlasmaMathUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
@@ -155,10 +156,15 @@ public class Type extends PlasmaObject {
     public boolean matches(CastableValue value) {
         if (this.isWildcard() || this.isImplicit()) {
             return true;
-        } else if (this.isArray() && value.getValueAs(CastableValue[].class).isPresent()) {
-            if(this.array == value.getValueAs(CastableValue[].class).get().length || this.array == -1) {
-                for (CastableValue v : value.getValueAs(CastableValue[].class).get()) {
-                    if (!this.arrayType.matches(v)) {
+        } else if (this.isArray() && ValueUtility.isArray(value)) {
+            int length = ValueUtility.length(value);
+            if (this.array == length || this.array == -1) {
+                //Arrays are changed in place, so their elements can't be remembered as checked, but there's nothing to check when anything fits
+                if (this.arrayType.isWildcard() || this.arrayType.isImplicit()) {
+                    return true;
+                }
+                for (int i = 0; i < length; i++) {
+                    if (!this.arrayType.matches(ValueUtility.element(value, i))) {
                         return false;
                     }
                 }
@@ -167,7 +173,7 @@ public class Type extends PlasmaObject {
             }
             return true;
         } else {
-            return (this.isNumber() && value.getValueAs(BigDecimal.class).isPresent()) || (this.isString() && value.getAsString().isPresent());
+            return (this.isNumber() && ValueUtility.isNumber(value)) || (this.isString() && ValueUtility.isString(value));
         }
     }
 
@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program;
+
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.List;
+
+//Operand stack, each function context is only ever used by one thread so nothing here is synchronized
+public class ValueStack extends PlasmaObject {
+    private CastableValue[] values;
+    private int size;
+
+    public ValueStack() {
+        this(16);
+    }
+
+    public ValueStack(int capacity) {
+        this.values = new CastableValue[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.values.length) {
+            this.values = Arrays.copyOf(this.values, Math.max(capacity, this.values.length * 2));
+        }
+    }
+
+    public CastableValue push(CastableValue value) {
+        if (this.size == this.values.length) {
+            this.ensureCapacity(this.size + 1);
+        }
+        this.values[this.size++] = value;
+        return value;
+    }
+
+    //Pushes every value, the last value ends up on top
+    public void pushAll(CastableValue... values) {
+        this.ensureCapacity(this.size + values.length);
+        System.arraycopy(values, 0, this.values, this.size, values.length);
+        this.size += values.length;
+    }
+
+    public CastableValue pop() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        CastableValue value = this.values[--this.size];
+        this.values[this.size] = null;
+        return value;
+    }
+
+    //Pops the top n values, returned bottom first
+    public CastableValue[] pop(int n) {
+        if (n > this.size) {
+            throw new EmptyStackException();
+        }
+        CastableValue[] popped = Arrays.copyOfRange(this.values, this.size - n, this.size);
+        this.truncate(this.size - n);
+        return popped;
+    }
+
+    public CastableValue peek() {
+        return this.peek(0);
+    }
+
+    //The value depth places below the top of the stack
+    public CastableValue peek(int depth) {
+        if (depth < 0 || depth >= this.size) {
+            throw new EmptyStackException();
+        }
+        return this.values[this.size - 1 - depth];
+    }
+
+    //The value at the given index, counting from the bottom of the stack
+    public CastableValue get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return this.values[index];
+    }
+
+    public CastableValue remove(int index) {
+        CastableValue value = this.get(index);
+        System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+        this.values[--this.size] = null;
+        return value;
+    }
+
+    public void truncate(int size) {
+        if (size < this.size) {
+            Arrays.fill(this.values, Math.max(size, 0), this.size, null);
+            this.size = Math.max(size, 0);
+        }
+    }
+
+    public void clear() {
+        this.truncate(0);
+    }
+
+    public void reverse() {
+        for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+            CastableValue value = this.values[i];
+            this.values[i] = this.values[j];
+            this.values[j] = value;
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public CastableValue[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    //A read-only view of the values between from (inclusive) and to (exclusive), counting from the bottom; only valid until the stack is next modified
+    public List<CastableValue> slice(int from, int to) {
+        if (from < 0 || to > this.size || from > to) {
+            throw new IndexOutOfBoundsException("Invalid slice: " + from + " to " + to + " of " + this.size);
+        }
+        return new AbstractList<CastableValue>() {
+            @Override
+            public CastableValue get(int index) {
+                if (index < 0 || index >= to - from) {
+                    throw new IndexOutOfBoundsException(String.valueOf(index));
+                }
+                return ValueStack.this.values[from + index];
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+}
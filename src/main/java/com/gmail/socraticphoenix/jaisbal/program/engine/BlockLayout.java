@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine;
+
+import com.gmail.socraticphoenix.jaisbal.program.function.BlockTable;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ControlFlowInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryInstruction;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+
+import java.util.Arrays;
+
+//The blocks of a function lowered to what the tree and compiled engines build from: the kind of each block start and where it ends
+public class BlockLayout extends PlasmaObject {
+    public static final int CALL = 0;
+    public static final int FOR = 1;
+    public static final int WHILE = 2;
+    public static final int DO_WHILE = 3;
+    public static final int IF_ELSE = 4;
+    public static final int ELSE = 5;
+    public static final int END_FOR = 6;
+    public static final int END_WHILE = 7;
+    public static final int END_DO_WHILE = 8;
+    public static final int END_IF_ELSE = 9;
+
+    private DecodedInstruction[] code;
+    private int[] ops;
+    private int[] targets; //block starts and else: index of the end, block ends: index of the start
+    private int[] middles; //ifelse: index of the else
+
+    private BlockLayout(DecodedInstruction[] code, int[] ops, int[] targets, int[] middles) {
+        this.code = code;
+        this.ops = ops;
+        this.targets = targets;
+        this.middles = middles;
+    }
+
+    //Returns null if the function uses constructs that can only be run by the interpreter, such as arbitrary jumps
+    public static BlockLayout lower(DecodedInstruction[] code, BlockTable blocks) {
+        int n = code.length;
+        int[] ops = new int[n];
+        int[] targets = new int[n];
+        int[] middles = new int[n];
+        boolean[] claimed = new boolean[n];
+        Arrays.fill(targets, -1);
+        Arrays.fill(middles, -1);
+
+        for (int i = 0; i < n; i++) {
+            Instruction entry = code[i].getInstruction();
+            if (entry == null || entry == ControlFlowInstructions.RELATIVE_JUMP || entry == ControlFlowInstructions.INDEX_JUMP || entry instanceof AuxiliaryInstruction) {
+                return null;
+            }
+            if (BlockLayout.isStart(entry)) {
+                int end = blocks.getEnd(i);
+                if (end < 0 || end >= n || code[end].getInstruction() != ControlFlowInstructions.END) {
+                    return null;
+                }
+                claimed[end] = true;
+                if (entry == ControlFlowInstructions.IF_ELSE_BLOCK) {
+                    int middle = blocks.getMiddle(i);
+                    if (middle == end || blocks.getEnd(middle) != end) {
+                        return null;
+                    }
+                    claimed[middle] = true;
+                    ops[i] = BlockLayout.IF_ELSE;
+                    targets[i] = end;
+                    middles[i] = middle;
+                    ops[middle] = BlockLayout.ELSE;
+                    targets[middle] = end;
+                    ops[end] = BlockLayout.END_IF_ELSE;
+                    targets[end] = i;
+                } else if (blocks.getMiddle(i) != end) {
+                    return null;
+                } else {
+                    targets[i] = end;
+                    targets[end] = i;
+                    if (entry == ControlFlowInstructions.FOR_LOOP || entry == ControlFlowInstructions.WHILE || entry == ControlFlowInstructions.DO_WHILE) {
+                        ops[i] = entry == ControlFlowInstructions.FOR_LOOP ? BlockLayout.FOR : entry == ControlFlowInstructions.WHILE ? BlockLayout.WHILE : BlockLayout.DO_WHILE;
+                        ops[end] = ops[i] + (BlockLayout.END_FOR - BlockLayout.FOR);
+                    }
+                }
+            } else if (entry == ControlFlowInstructions.ELSE) {
+                if (!claimed[i]) {
+                    return null;
+                }
+            } else if (Function.SKIPS.contains(entry)) {
+                //Skips must land on a plain instruction inside the same block
+                if ((i + 1 < n && BlockLayout.isBlock(code[i + 1].getInstruction())) || (i + 2 < n && BlockLayout.isBoundary(code[i + 2].getInstruction()))) {
+                    return null;
+                }
+            }
+        }
+        return new BlockLayout(code, ops, targets, middles);
+    }
+
+    private static boolean isStart(Instruction entry) {
+        return entry != null && InstructionRegistry.getBlockStarts().contains(entry.getMainAlias()) && !InstructionRegistry.getFloofyBlocks().contains(entry.getMainAlias());
+    }
+
+    private static boolean isBoundary(Instruction entry) {
+        return entry != null && (InstructionRegistry.getBlockEnds().contains(entry.getMainAlias()) || InstructionRegistry.getFloofyBlocks().contains(entry.getMainAlias()));
+    }
+
+    private static boolean isBlock(Instruction entry) {
+        return BlockLayout.isStart(entry) || BlockLayout.isBoundary(entry);
+    }
+
+    public int length() {
+        return this.code.length;
+    }
+
+    public DecodedInstruction[] getCode() {
+        return this.code;
+    }
+
+    public DecodedInstruction getCode(int index) {
+        return this.code[index];
+    }
+
+    public int getOp(int index) {
+        return this.ops[index];
+    }
+
+    public int getTarget(int index) {
+        return this.targets[index];
+    }
+
+    public int getMiddle(int index) {
+        return this.middles[index];
+    }
+
+}
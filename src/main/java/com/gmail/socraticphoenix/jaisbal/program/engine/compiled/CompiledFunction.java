@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.compiled;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+
+//Base of the classes FunctionCompiler generates, run is the whole function with its blocks as branches and loops
+public abstract class CompiledFunction extends PlasmaObject {
+    protected DecodedInstruction[] code;
+
+    protected CompiledFunction(DecodedInstruction[] code) {
+        this.code = code;
+    }
+
+    public abstract State run(FunctionContext context) throws JAISBaLExecutionException;
+
+    //Positions the context on the instruction, as the interpreter does before executing it
+    protected void enter(FunctionContext context, int index) {
+        context.setCurrent(index + 1);
+        context.setCurrentArg(this.code[index].getValue());
+    }
+
+    protected JAISBaLExecutionException error(int index, FunctionContext context, Throwable cause) {
+        return FunctionContext.executionError(this.code[index], this.code[index].getInstruction(), context.getCurrent() - 1, cause);
+    }
+
+}
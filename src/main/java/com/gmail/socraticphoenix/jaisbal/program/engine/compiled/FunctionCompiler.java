@@ -0,0 +1,570 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.compiled;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.engine.BlockLayout;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.function.Superinstruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.NumberUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
+import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Generates a CompiledFunction class from a lowered function. Blocks become branches and loops in a single run method,
+//built in instructions become direct calls to their static methods and every other instruction a call to its own action
+public class FunctionCompiler extends PlasmaObject {
+    private static final String BASE = org.objectweb.asm.Type.getInternalName(CompiledFunction.class);
+    private static final AtomicInteger names = new AtomicInteger();
+    //Local variable slots of run, block locals are allocated after these
+    private static final int THIS = 0;
+    private static final int CONTEXT = 1;
+    private static final int STATE = 2;
+    private static final int CAUGHT = 3;
+    private static final int TARGET = 4;
+
+    private BlockLayout function;
+    private MethodVisitor method;
+    private Label done; //returns State.NORMAL, as the other engines do however the function stops
+    private List<Handler> handlers;
+    private int locals;
+
+    private FunctionCompiler(BlockLayout function) {
+        this.function = function;
+        this.done = new Label();
+        this.handlers = new ArrayList<>();
+        this.locals = FunctionCompiler.TARGET + 1;
+    }
+
+    //Returns null if the function is too large to be a single JVM method
+    public static CompiledFunction compile(BlockLayout function) {
+        String name = FunctionCompiler.BASE.substring(0, FunctionCompiler.BASE.lastIndexOf('/') + 1) + "Function" + FunctionCompiler.names.incrementAndGet();
+        ClassWriter writer = new FunctionCompiler(function).generate(name);
+        byte[] bytes;
+        try {
+            bytes = writer.toByteArray();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        Class<?> type = new Loader(CompiledFunction.class.getClassLoader()).define(name.replace('/', '.'), bytes);
+        try {
+            return (CompiledFunction) type.getConstructor(DecodedInstruction[].class).newInstance((Object) function.getCode());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Invalid state: could not create " + name, e);
+        }
+    }
+
+    private ClassWriter generate(String name) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, FunctionCompiler.BASE, null);
+
+        String constructor = "(" + org.objectweb.asm.Type.getDescriptor(DecodedInstruction[].class) + ")V";
+        this.method = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", constructor, null, null);
+        this.method.visitCode();
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.THIS);
+        this.method.visitVarInsn(Opcodes.ALOAD, 1);
+        this.method.visitMethodInsn(Opcodes.INVOKESPECIAL, FunctionCompiler.BASE, "<init>", constructor, false);
+        this.method.visitInsn(Opcodes.RETURN);
+        this.method.visitMaxs(0, 0);
+        this.method.visitEnd();
+
+        Method run = FunctionCompiler.method(CompiledFunction.class, "run", FunctionContext.class);
+        this.method = writer.visitMethod(Opcodes.ACC_PUBLIC, "run", org.objectweb.asm.Type.getMethodDescriptor(run), null, new String[]{org.objectweb.asm.Type.getInternalName(JAISBaLExecutionException.class)});
+        this.method.visitCode();
+        this.sequence(0, this.function.length(), this.done, new int[0], null);
+        this.method.visitLabel(this.done);
+        this.state("NORMAL");
+        this.method.visitInsn(Opcodes.ARETURN);
+        for (Handler handler : this.handlers) {
+            //Wraps the error once for the instruction and once for each block around it, as nested runs of the interpreter do
+            this.method.visitLabel(handler.label);
+            this.method.visitVarInsn(Opcodes.ASTORE, FunctionCompiler.CAUGHT);
+            if (handler.checked) {
+                this.checked(false);
+            }
+            for (int index : handler.blocks) {
+                this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.THIS);
+                this.push(index);
+                this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+                this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CAUGHT);
+                this.invoke(CompiledFunction.class, "error", int.class, FunctionContext.class, Throwable.class);
+                this.method.visitVarInsn(Opcodes.ASTORE, FunctionCompiler.CAUGHT);
+            }
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CAUGHT);
+            this.method.visitInsn(Opcodes.ATHROW);
+        }
+        this.method.visitMaxs(0, 0);
+        this.method.visitEnd();
+        writer.visitEnd();
+        return writer;
+    }
+
+    //The same children TreeFunction builds a SequenceNode from, dead instructions are left out
+    private void sequence(int start, int end, Label exit, int[] blocks, Label loop) {
+        List<Integer> children = new ArrayList<>();
+        int i = start;
+        while (i < end) {
+            int blockEnd = this.function.getTarget(i);
+            if (!this.function.getCode(i).isDead() || blockEnd > i || this.function.getOp(i) != BlockLayout.CALL) {
+                children.add(i);
+            }
+            i = blockEnd > i ? blockEnd + 1 : i + 1;
+        }
+        Sequence sequence = new Sequence(children, end, exit);
+        for (int position = 0; position < sequence.indices.length; position++) {
+            this.method.visitLabel(sequence.labels[position]);
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+            this.invoke(FunctionContext.class, "isRunning");
+            this.method.visitJumpInsn(Opcodes.IFEQ, exit);
+            this.child(sequence, position, blocks, loop);
+        }
+        this.method.visitJumpInsn(Opcodes.GOTO, exit);
+        if (sequence.resume != null) {
+            int min = sequence.indices[0];
+            Label[] targets = new Label[end - min];
+            for (int j = 0; j < targets.length; j++) {
+                targets[j] = sequence.target(min + j);
+            }
+            this.method.visitLabel(sequence.resume);
+            this.method.visitVarInsn(Opcodes.ILOAD, FunctionCompiler.TARGET);
+            this.method.visitTableSwitchInsn(min, end - 1, exit, targets);
+        }
+    }
+
+    private void child(Sequence sequence, int position, int[] blocks, Label loop) {
+        int index = sequence.indices[position];
+        Label next = sequence.next(position);
+        switch (this.function.getOp(index)) {
+            case BlockLayout.FOR:
+                this.forLoop(index, next, FunctionCompiler.enclose(index, blocks));
+                break;
+            case BlockLayout.WHILE:
+            case BlockLayout.DO_WHILE:
+                this.whileLoop(index, next, FunctionCompiler.enclose(index, blocks), this.function.getOp(index) == BlockLayout.WHILE);
+                break;
+            case BlockLayout.IF_ELSE:
+                this.ifElse(index, next, FunctionCompiler.enclose(index, blocks), loop);
+                break;
+            default:
+                this.call(sequence, position, next, blocks, loop);
+        }
+    }
+
+    private void forLoop(int index, Label after, int[] blocks) {
+        Label handler = this.handler(blocks, false);
+        int value = this.locals++;
+        int values = this.locals++;
+        int count = this.locals;
+        int counter = this.locals + 2;
+        this.locals += 4;
+        Label each = new Label();
+        Label start = new Label();
+        Label loop = new Label();
+        Label body = new Label();
+        Label step = new Label();
+
+        this.current(index + 1);
+        Label end = this.protect(handler);
+        this.checkUnderflow();
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(FunctionContext.class, "getStack");
+        this.invoke(ValueStack.class, "pop");
+        this.method.visitVarInsn(Opcodes.ASTORE, value);
+        this.field(Type.class, "NUMBER");
+        this.method.visitVarInsn(Opcodes.ALOAD, value);
+        this.invoke(Type.class, "matches", CastableValue.class);
+        this.method.visitJumpInsn(Opcodes.IFEQ, each);
+        this.method.visitVarInsn(Opcodes.ALOAD, value);
+        this.invoke(ValueUtility.class, "number", CastableValue.class);
+        this.invoke(NumberUtility.class, "iterations", BigDecimal.class);
+        this.method.visitVarInsn(Opcodes.LSTORE, count);
+        this.method.visitInsn(Opcodes.ACONST_NULL);
+        this.method.visitVarInsn(Opcodes.ASTORE, values);
+        this.method.visitJumpInsn(Opcodes.GOTO, start);
+        this.method.visitLabel(each);
+        this.method.visitVarInsn(Opcodes.ALOAD, value);
+        this.invoke(InstructionUtility.class, "forEachValues", CastableValue.class);
+        this.method.visitInsn(Opcodes.DUP);
+        this.method.visitVarInsn(Opcodes.ASTORE, values);
+        this.invoke(ValueUtility.class, "length", CastableValue.class);
+        this.method.visitInsn(Opcodes.I2L);
+        this.method.visitVarInsn(Opcodes.LSTORE, count);
+        this.method.visitLabel(start);
+        this.method.visitInsn(Opcodes.LCONST_0);
+        this.method.visitVarInsn(Opcodes.LSTORE, counter);
+        this.method.visitLabel(end);
+
+        this.method.visitLabel(loop);
+        this.method.visitVarInsn(Opcodes.LLOAD, counter);
+        this.method.visitVarInsn(Opcodes.LLOAD, count);
+        this.method.visitInsn(Opcodes.LCMP);
+        this.method.visitJumpInsn(Opcodes.IFGE, after);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(FunctionContext.class, "isRunning");
+        this.method.visitJumpInsn(Opcodes.IFEQ, after);
+        //Counting loops have no values, for each loops push the next one
+        this.method.visitVarInsn(Opcodes.ALOAD, values);
+        this.method.visitJumpInsn(Opcodes.IFNULL, body);
+        end = this.protect(handler);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(FunctionContext.class, "getStack");
+        this.method.visitVarInsn(Opcodes.ALOAD, values);
+        this.method.visitVarInsn(Opcodes.LLOAD, counter);
+        this.method.visitInsn(Opcodes.L2I);
+        this.invoke(ValueUtility.class, "element", CastableValue.class, int.class);
+        this.invoke(ValueStack.class, "push", CastableValue.class);
+        this.method.visitInsn(Opcodes.POP);
+        this.method.visitLabel(end);
+        this.method.visitLabel(body);
+        this.sequence(index + 1, this.function.getTarget(index), step, blocks, after);
+        this.method.visitLabel(step);
+        this.method.visitVarInsn(Opcodes.LLOAD, counter);
+        this.method.visitInsn(Opcodes.LCONST_1);
+        this.method.visitInsn(Opcodes.LADD);
+        this.method.visitVarInsn(Opcodes.LSTORE, counter);
+        this.method.visitJumpInsn(Opcodes.GOTO, loop);
+    }
+
+    private void whileLoop(int index, Label after, int[] blocks, boolean checkFirst) {
+        Label handler = this.handler(blocks, false);
+        Label loop = new Label();
+        Label step = new Label();
+        this.current(index + 1);
+        if (checkFirst) {
+            this.truthy(handler, true);
+            this.method.visitJumpInsn(Opcodes.IFEQ, after);
+        }
+        this.method.visitLabel(loop);
+        this.sequence(index + 1, this.function.getTarget(index), step, blocks, after);
+        this.method.visitLabel(step);
+        this.current(index + 1);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(FunctionContext.class, "isRunning");
+        this.method.visitJumpInsn(Opcodes.IFEQ, after);
+        this.truthy(handler, true);
+        this.method.visitJumpInsn(Opcodes.IFNE, loop);
+        this.method.visitJumpInsn(Opcodes.GOTO, after);
+    }
+
+    private void ifElse(int index, Label after, int[] blocks, Label loop) {
+        Label handler = this.handler(blocks, false);
+        Label falsy = new Label();
+        int middle = this.function.getMiddle(index);
+        this.current(index + 1);
+        this.truthy(handler, false);
+        this.method.visitJumpInsn(Opcodes.IFEQ, falsy);
+        this.sequence(index + 1, middle, after, blocks, loop);
+        this.method.visitLabel(falsy);
+        this.sequence(middle + 1, this.function.getTarget(index), after, blocks, loop);
+    }
+
+    private void call(Sequence sequence, int position, Label next, int[] blocks, Label loop) {
+        int index = sequence.indices[position];
+        DecodedInstruction code = this.function.getCode(index);
+        Instruction instruction = code.getInstruction();
+        int end = this.function.getTarget(index);
+        Label handler = this.handler(FunctionCompiler.enclose(index, blocks), code.isChecked());
+        if (end > index) {
+            //ifblock and the case blocks, the instruction jumps when its block shouldn't run
+            this.action(index, code, handler);
+            this.state("JUMPED");
+            this.method.visitJumpInsn(Opcodes.IF_ACMPEQ, next);
+            this.sequence(index + 1, end, next, blocks, loop);
+            return;
+        }
+
+        if (code.getFused() != null) {
+            //The superinstruction leaves the context after the instructions it replaced, or after the one its skip skipped
+            Label unfused = new Label();
+            this.current(index + 1);
+            Label protect = this.protect(handler);
+            this.code(index);
+            this.invoke(DecodedInstruction.class, "getFused");
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+            this.invoke(Superinstruction.class, "apply", FunctionContext.class);
+            this.method.visitLabel(protect);
+            this.method.visitVarInsn(Opcodes.ASTORE, FunctionCompiler.STATE);
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.STATE);
+            this.method.visitJumpInsn(Opcodes.IFNULL, unfused);
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.STATE);
+            this.state("JUMPED");
+            this.method.visitJumpInsn(Opcodes.IF_ACMPEQ, sequence.target(index + code.getFused().length() + 1));
+            this.method.visitJumpInsn(Opcodes.GOTO, sequence.target(index + code.getFused().length()));
+            this.method.visitLabel(unfused);
+        }
+
+        this.action(index, code, handler);
+        if (Intrinsics.isSkip(instruction) || Function.SKIPS.contains(instruction)) {
+            this.state("JUMPED");
+            this.method.visitJumpInsn(Opcodes.IF_ACMPEQ, sequence.target(index + 2));
+        } else if (Intrinsics.get(instruction) != null) {
+            this.method.visitInsn(Opcodes.POP);
+        } else {
+            Label kept = new Label();
+            this.method.visitVarInsn(Opcodes.ASTORE, FunctionCompiler.STATE);
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.STATE);
+            this.invoke(State.class, "isTransmit");
+            this.method.visitJumpInsn(Opcodes.IFEQ, kept);
+            if (loop != null) {
+                //A break leaves the innermost loop, a return (or a break outside of any loop) the function
+                this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.STATE);
+                this.state("TRANSMITTING_BREAK");
+                this.method.visitJumpInsn(Opcodes.IF_ACMPEQ, loop);
+            }
+            this.method.visitJumpInsn(Opcodes.GOTO, this.done);
+            this.method.visitLabel(kept);
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.STATE);
+            this.state("JUMPED");
+            this.method.visitJumpInsn(Opcodes.IF_ACMPNE, next);
+            //Jumps only known at run time continue at the first later child at or after the new index, as SequenceNode does
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+            this.invoke(FunctionContext.class, "getCurrent");
+            this.method.visitInsn(Opcodes.DUP);
+            this.method.visitVarInsn(Opcodes.ISTORE, FunctionCompiler.TARGET);
+            this.push(sequence.end);
+            this.method.visitJumpInsn(Opcodes.IF_ICMPGE, sequence.exit);
+            this.method.visitVarInsn(Opcodes.ILOAD, FunctionCompiler.TARGET);
+            this.push(index);
+            this.method.visitJumpInsn(Opcodes.IF_ICMPLE, next);
+            this.method.visitJumpInsn(Opcodes.GOTO, sequence.resume());
+        }
+    }
+
+    //Runs the instruction, leaving the State it returns on the operand stack
+    private void action(int index, DecodedInstruction code, Label handler) {
+        Method intrinsic = Intrinsics.get(code.getInstruction());
+        Label end = this.protect(handler);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.THIS);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.push(index);
+        this.invoke(CompiledFunction.class, "enter", FunctionContext.class, int.class);
+        if (code.isChecked()) {
+            this.checked(true);
+        }
+        if (intrinsic != null) {
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+            this.invoke(intrinsic);
+        } else {
+            this.code(index);
+            this.invoke(DecodedInstruction.class, "getInstruction");
+            this.invoke(Instruction.class, "getAction");
+            this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+            this.invoke(DangerousFunction.class, "apply", Object.class);
+            this.method.visitTypeInsn(Opcodes.CHECKCAST, org.objectweb.asm.Type.getInternalName(State.class));
+        }
+        if (code.isChecked()) {
+            this.checked(false);
+        }
+        this.method.visitLabel(end);
+    }
+
+    //Pops (or peeks at) the top of the stack and leaves whether it is truthy on the operand stack
+    private void truthy(Label handler, boolean peek) {
+        Label end = this.protect(handler);
+        this.checkUnderflow();
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(FunctionContext.class, "getStack");
+        this.invoke(ValueStack.class, peek ? "peek" : "pop");
+        this.invoke(InstructionUtility.class, "truthy", CastableValue.class);
+        this.method.visitLabel(end);
+    }
+
+    private void checkUnderflow() {
+        this.push(1);
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.invoke(Program.class, "checkUnderflow", int.class, FunctionContext.class);
+    }
+
+    private void current(int current) {
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.push(current);
+        this.invoke(FunctionContext.class, "setCurrent", int.class);
+    }
+
+    private void checked(boolean checked) {
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.CONTEXT);
+        this.push(checked ? 1 : 0);
+        this.invoke(FunctionContext.class, "setChecked", boolean.class);
+    }
+
+    private void code(int index) {
+        this.method.visitVarInsn(Opcodes.ALOAD, FunctionCompiler.THIS);
+        this.method.visitFieldInsn(Opcodes.GETFIELD, FunctionCompiler.BASE, "code", org.objectweb.asm.Type.getDescriptor(DecodedInstruction[].class));
+        this.push(index);
+        this.method.visitInsn(Opcodes.AALOAD);
+    }
+
+    private void state(String name) {
+        this.field(State.class, name);
+    }
+
+    private void field(Class<?> owner, String name) {
+        try {
+            Field field = owner.getField(name);
+            this.method.visitFieldInsn(Opcodes.GETSTATIC, org.objectweb.asm.Type.getInternalName(owner), name, org.objectweb.asm.Type.getDescriptor(field.getType()));
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Invalid state: no field called: " + name, e);
+        }
+    }
+
+    private void push(int value) {
+        if (value >= -1 && value <= 5) {
+            this.method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            this.method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            this.method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            this.method.visitLdcInsn(value);
+        }
+    }
+
+    private void invoke(Class<?> owner, String name, Class<?>... parameters) {
+        this.invoke(FunctionCompiler.method(owner, name, parameters));
+    }
+
+    private void invoke(Method target) {
+        Class<?> owner = target.getDeclaringClass();
+        int opcode = Modifier.isStatic(target.getModifiers()) ? Opcodes.INVOKESTATIC : owner.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+        this.method.visitMethodInsn(opcode, org.objectweb.asm.Type.getInternalName(owner), target.getName(), org.objectweb.asm.Type.getMethodDescriptor(target), owner.isInterface());
+    }
+
+    private static Method method(Class<?> owner, String name, Class<?>... parameters) {
+        try {
+            return owner.getDeclaredMethod(name, parameters);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Invalid state: no method called: " + name, e);
+        }
+    }
+
+    //Starts a range of code whose errors go to the handler, and returns the label that ends it
+    private Label protect(Label handler) {
+        Label start = new Label();
+        Label end = new Label();
+        this.method.visitTryCatchBlock(start, end, handler, org.objectweb.asm.Type.getInternalName(Throwable.class));
+        this.method.visitLabel(start);
+        return end;
+    }
+
+    private Label handler(int[] blocks, boolean checked) {
+        Handler handler = new Handler(blocks, checked);
+        this.handlers.add(handler);
+        return handler.label;
+    }
+
+    //The index of an instruction followed by the blocks it is in, innermost first
+    private static int[] enclose(int index, int[] blocks) {
+        int[] enclosed = new int[blocks.length + 1];
+        enclosed[0] = index;
+        System.arraycopy(blocks, 0, enclosed, 1, blocks.length);
+        return enclosed;
+    }
+
+    private static class Handler {
+        private Label label;
+        private int[] blocks;
+        private boolean checked;
+
+        private Handler(int[] blocks, boolean checked) {
+            this.label = new Label();
+            this.blocks = blocks;
+            this.checked = checked;
+        }
+
+    }
+
+    private static class Sequence {
+        private int[] indices;
+        private Label[] labels;
+        private int end;
+        private Label exit;
+        private Label resume;
+
+        private Sequence(List<Integer> indices, int end, Label exit) {
+            this.indices = new int[indices.size()];
+            this.labels = new Label[indices.size()];
+            for (int i = 0; i < this.indices.length; i++) {
+                this.indices[i] = indices.get(i);
+                this.labels[i] = new Label();
+            }
+            this.end = end;
+            this.exit = exit;
+        }
+
+        private Label next(int position) {
+            return position + 1 < this.labels.length ? this.labels[position + 1] : this.exit;
+        }
+
+        //Where an instruction that jumps to the index continues
+        private Label target(int index) {
+            for (int i = 0; i < this.indices.length; i++) {
+                if (this.indices[i] >= index) {
+                    return this.labels[i];
+                }
+            }
+            return this.exit;
+        }
+
+        private Label resume() {
+            if (this.resume == null) {
+                this.resume = new Label();
+            }
+            return this.resume;
+        }
+
+    }
+
+    private static class Loader extends ClassLoader {
+
+        private Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
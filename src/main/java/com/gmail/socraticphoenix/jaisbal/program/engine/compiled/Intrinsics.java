@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.compiled;
+
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Opcodes;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ConditionalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ControlFlowInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.MathematicalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.StackInstructions;
+
+import java.lang.reflect.Method;
+
+//The static methods behind the built in opcodes, which compiled functions call directly, see Opcodes#dispatch
+public interface Intrinsics {
+
+    //Returns null if the instruction only has its action
+    static Method get(Instruction instruction) {
+        switch (instruction.getOpcode()) {
+            case Opcodes.END:
+                return Intrinsics.method(ControlFlowInstructions.class, "end");
+            case Opcodes.PUSH_NUMBER:
+            case Opcodes.PUSH_TERMINATED:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "pushArgument");
+            case Opcodes.POP:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "pop");
+            case Opcodes.SWAP:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "swap");
+            case Opcodes.DUPLICATE:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "duplicate");
+            case Opcodes.STORE:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "store");
+            case Opcodes.LOAD:
+                return Intrinsics.method(StackInstructions.Manipulators.class, "load");
+            case Opcodes.ADD:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "add");
+            case Opcodes.SUBTRACT:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "subtract");
+            case Opcodes.MULTIPLY:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "multiply");
+            case Opcodes.DIVIDE:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "divide");
+            case Opcodes.INCREMENT:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "increment");
+            case Opcodes.DECREMENT:
+                return Intrinsics.method(MathematicalInstructions.Operations.class, "decrement");
+            case Opcodes.EQUAL:
+                return Intrinsics.method(ConditionalInstructions.class, "equal");
+            case Opcodes.NOT_EQUAL:
+                return Intrinsics.method(ConditionalInstructions.class, "notEqual");
+            case Opcodes.GREATER:
+                return Intrinsics.method(ConditionalInstructions.class, "greater");
+            case Opcodes.LESS:
+                return Intrinsics.method(ConditionalInstructions.class, "less");
+            case Opcodes.GREATER_EQUAL:
+                return Intrinsics.method(ConditionalInstructions.class, "greaterEqual");
+            case Opcodes.LESS_EQUAL:
+                return Intrinsics.method(ConditionalInstructions.class, "lessEqual");
+            case Opcodes.IF_TRUTHY:
+                return Intrinsics.method(ConditionalInstructions.class, "ifTruthy");
+            case Opcodes.IF_FALSEY:
+                return Intrinsics.method(ConditionalInstructions.class, "ifFalsey");
+            default:
+                //The jumps are never compiled, see BlockLayout#lower
+                return null;
+        }
+    }
+
+    //Whether the method can only return State.NORMAL or State.JUMPED, which skips the next instruction
+    static boolean isSkip(Instruction instruction) {
+        return instruction.getOpcode() >= Opcodes.EQUAL && instruction.getOpcode() <= Opcodes.IF_FALSEY;
+    }
+
+    static Method method(Class<?> owner, String name) {
+        try {
+            return owner.getMethod(name, FunctionContext.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Invalid state: no intrinsic called: " + name, e);
+        }
+    }
+
+}
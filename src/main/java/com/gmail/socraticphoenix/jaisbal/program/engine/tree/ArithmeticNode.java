@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.function.BinaryOperator;
+
+//Uninitialized arithmetic call, rewrites itself after observing the operands of its first execution
+public class ArithmeticNode extends CallNode {
+    private BinaryOperator<BigDecimal> operator;
+
+    public ArithmeticNode(int index, DecodedInstruction code, BinaryOperator<BigDecimal> operator) {
+        super(index, code);
+        this.operator = operator;
+    }
+
+    public static boolean isNumbers(ValueStack stack) {
+        int size = stack.size();
+        return size >= 2 && stack.get(size - 1).getValue().orElse(null) instanceof BigDecimal && stack.get(size - 2).getValue().orElse(null) instanceof BigDecimal;
+    }
+
+    @Override
+    public State execute(FunctionContext context) throws JAISBaLExecutionException {
+        if (ArithmeticNode.isNumbers(context.getStack())) {
+            return this.replace(new NumberArithmeticNode(this.index, this.code, this.operator)).execute(context);
+        } else {
+            return this.replace(new CallNode(this.index, this.code)).execute(context);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.NumberUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+public class ForNode extends BlockNode {
+
+    public ForNode(int index, DecodedInstruction code, Node body) {
+        super(index, code, body);
+    }
+
+    @Override
+    protected State executeBlock(FunctionContext context) throws JAISBaLExecutionException {
+        Program.checkUnderflow(1, context);
+        CastableValue val = context.getStack().pop();
+        if (Type.NUMBER.matches(val)) {
+            long iterations = NumberUtility.iterations(ValueUtility.number(val));
+            for (long i = 0; i < iterations && context.isRunning(); i++) {
+                State state = this.body.execute(context);
+                if (state.isTransmit()) {
+                    return state.deTransmitBreak();
+                }
+            }
+        } else {
+            CastableValue values = InstructionUtility.forEachValues(val);
+            int length = ValueUtility.length(values);
+            for (int i = 0; i < length; i++) {
+                if (!context.isRunning()) {
+                    break;
+                }
+                context.getStack().push(ValueUtility.element(values, i));
+                State state = this.body.execute(context);
+                if (state.isTransmit()) {
+                    return state.deTransmitBreak();
+                }
+            }
+        }
+        return State.NORMAL;
+    }
+
+}
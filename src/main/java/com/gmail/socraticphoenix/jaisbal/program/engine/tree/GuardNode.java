@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+
+//ifblock and case blocks, the guard instruction itself decides whether the block runs
+public class GuardNode extends Node {
+    private Node guard;
+    private Node body;
+
+    public GuardNode(Node guard, Node body) {
+        this.guard = guard;
+        this.body = body;
+        guard.setParent(this);
+        body.setParent(this);
+    }
+
+    @Override
+    public State execute(FunctionContext context) throws JAISBaLExecutionException {
+        if (this.guard.execute(context) == State.JUMPED) {
+            return State.NORMAL;
+        } else {
+            return this.body.execute(context);
+        }
+    }
+
+    @Override
+    protected void replaceChild(Node child, Node replacement) {
+        if (this.guard == child) {
+            this.guard = replacement;
+        }
+        if (this.body == child) {
+            this.body = replacement;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.function.BinaryOperator;
+
+//Number-only arithmetic, falls back to the generic instruction for good once it sees anything else
+public class NumberArithmeticNode extends CallNode {
+    private BinaryOperator<BigDecimal> operator;
+
+    public NumberArithmeticNode(int index, DecodedInstruction code, BinaryOperator<BigDecimal> operator) {
+        super(index, code);
+        this.operator = operator;
+    }
+
+    @Override
+    public State execute(FunctionContext context) throws JAISBaLExecutionException {
+        ValueStack stack = context.getStack();
+        if (!ArithmeticNode.isNumbers(stack)) {
+            return this.replace(new CallNode(this.index, this.code)).execute(context);
+        }
+        context.setCurrent(this.index + 1);
+        try {
+            BigDecimal a = (BigDecimal) stack.pop().getValue().get();
+            BigDecimal b = (BigDecimal) stack.pop().getValue().get();
+            stack.push(CastableValue.of(this.operator.apply(a, b)));
+            return State.NORMAL;
+        } catch (Throwable e) {
+            throw this.error(context, e);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+
+public class SequenceNode extends Node {
+    private Node[] children;
+    private int[] indices;
+    private int end;
+
+    public SequenceNode(Node[] children, int[] indices, int end) {
+        this.children = children;
+        this.indices = indices;
+        this.end = end;
+        for (Node child : children) {
+            child.setParent(this);
+        }
+    }
+
+    @Override
+    public State execute(FunctionContext context) throws JAISBaLExecutionException {
+        int i = 0;
+        while (i < this.children.length && context.isRunning()) {
+            State state = this.children[i].execute(context);
+            if (state.isTransmit()) {
+                return state;
+            } else if (state == State.JUMPED) {
+                //Skip instructions only ever land on a later instruction of the same sequence
+                int target = context.getCurrent();
+                if (target >= this.end) {
+                    return State.NORMAL;
+                }
+                do {
+                    i++;
+                } while (i < this.children.length && this.indices[i] < target);
+            } else {
+                i++;
+            }
+        }
+        return State.NORMAL;
+    }
+
+    @Override
+    protected void replaceChild(Node child, Node replacement) {
+        for (int i = 0; i < this.children.length; i++) {
+            if (this.children[i] == child) {
+                this.children[i] = replacement;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.engine.BlockLayout;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.function.Superinstruction;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+public class TreeFunction extends PlasmaObject {
+    private Node root;
+
+    private TreeFunction(Node root) {
+        this.root = root;
+    }
+
+    static TreeFunction build(BlockLayout function) {
+        return new TreeFunction(TreeFunction.build(function, 0, function.length()));
+    }
+
+    private static SequenceNode build(BlockLayout function, int start, int end) {
+        List<Node> children = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        int i = start;
+        while (i < end) {
+            DecodedInstruction code = function.getCode(i);
+            int blockEnd = function.getTarget(i);
+            if (code.isDead() && blockEnd <= i && function.getOp(i) == BlockLayout.CALL) {
+                //Never runs, see Function#markDeadCode
+                i++;
+                continue;
+            }
+            indices.add(i);
+            switch (function.getOp(i)) {
+                case BlockLayout.FOR:
+                    children.add(new ForNode(i, code, TreeFunction.build(function, i + 1, blockEnd)));
+                    i = blockEnd + 1;
+                    break;
+                case BlockLayout.WHILE:
+                case BlockLayout.DO_WHILE:
+                    children.add(new WhileNode(i, code, TreeFunction.build(function, i + 1, blockEnd), function.getOp(i) == BlockLayout.WHILE));
+                    i = blockEnd + 1;
+                    break;
+                case BlockLayout.IF_ELSE:
+                    int middle = function.getMiddle(i);
+                    children.add(new IfElseNode(i, code, TreeFunction.build(function, i + 1, middle), TreeFunction.build(function, middle + 1, blockEnd)));
+                    i = blockEnd + 1;
+                    break;
+                default:
+                    if (blockEnd > i) {
+                        children.add(new GuardNode(new CallNode(i, code), TreeFunction.build(function, i + 1, blockEnd)));
+                        i = blockEnd + 1;
+                    } else {
+                        children.add(TreeFunction.call(i, code));
+                        i++;
+                    }
+            }
+        }
+        int[] starts = new int[indices.size()];
+        for (int j = 0; j < starts.length; j++) {
+            starts[j] = indices.get(j);
+        }
+        return new SequenceNode(children.toArray(new Node[children.size()]), starts, end);
+    }
+
+    private static Node call(int index, DecodedInstruction code) {
+        BinaryOperator<BigDecimal> operation = Superinstruction.getNumberOperation(code.getInstruction());
+        if (code.getFused() != null) {
+            return new FusedNode(index, code);
+        } else if (operation != null) {
+            return new ArithmeticNode(index, code, operation);
+        } else {
+            return new CallNode(index, code);
+        }
+    }
+
+    public State run(FunctionContext context) throws JAISBaLExecutionException {
+        this.root.execute(context);
+        return State.NORMAL;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.tree;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+public class WhileNode extends BlockNode {
+    private boolean checkFirst;
+
+    public WhileNode(int index, DecodedInstruction code, Node body, boolean checkFirst) {
+        super(index, code, body);
+        this.checkFirst = checkFirst;
+    }
+
+    @Override
+    protected State executeBlock(FunctionContext context) throws JAISBaLExecutionException {
+        if (this.checkFirst && !this.check(context)) {
+            return State.NORMAL;
+        }
+        do {
+            State state = this.body.execute(context);
+            if (state.isTransmit()) {
+                return state.deTransmitBreak();
+            }
+            context.setCurrent(this.index + 1);
+        } while (context.isRunning() && this.check(context));
+        return State.NORMAL;
+    }
+
+    private boolean check(FunctionContext context) throws JAISBaLExecutionException {
+        Program.checkUnderflow(1, context);
+        CastableValue val = context.getStack().pop();
+        context.getStack().push(val);
+        return InstructionUtility.truthy(val);
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+public class BlockTable extends PlasmaObject {
+    private int[] ends;
+    private int[] middles;
+    private boolean[] floofy;
+
+    public BlockTable(DecodedInstruction[] instructions) {
+        this.ends = new int[instructions.length];
+        this.middles = new int[instructions.length];
+        this.floofy = new boolean[instructions.length];
+        Arrays.fill(this.ends, -1);
+        Arrays.fill(this.middles, -1);
+
+        Deque<int[]> open = new ArrayDeque<>(); //{start index, index of last middle in the block}
+        for (int i = 0; i < instructions.length; i++) {
+            Instruction entry = instructions[i].getInstruction();
+            if (entry != null) {
+                String alias = entry.getMainAlias();
+                if (InstructionRegistry.getFloofyBlocks().contains(alias)) {
+                    this.floofy[i] = true;
+                    if (open.isEmpty()) {
+                        open.push(new int[]{-1, -1});
+                    }
+                    int[] block = open.peek();
+                    if (block[1] != -1) {
+                        this.ends[block[1]] = i;
+                    } else if (block[0] != -1) {
+                        this.middles[block[0]] = i;
+                    }
+                    block[1] = i;
+                } else if (InstructionRegistry.getBlockStarts().contains(alias)) {
+                    open.push(new int[]{i, -1});
+                } else if (InstructionRegistry.getBlockEnds().contains(alias) && !open.isEmpty()) {
+                    this.close(open.pop(), i);
+                }
+            }
+        }
+
+        while (!open.isEmpty()) {
+            this.close(open.pop(), instructions.length);
+        }
+    }
+
+    private void close(int[] block, int end) {
+        if (block[0] != -1) {
+            this.ends[block[0]] = end;
+        }
+        if (block[1] != -1) {
+            this.ends[block[1]] = end;
+        }
+    }
+
+    public boolean isFloofy(int index) {
+        return index >= 0 && index < this.floofy.length && this.floofy[index];
+    }
+
+    public int getEnd(int start) {
+        return start >= 0 && start < this.ends.length ? this.ends[start] : -1;
+    }
+
+    public int getMiddle(int start) {
+        if (start >= 0 && start < this.middles.length) {
+            return this.middles[start] == -1 ? this.ends[start] : this.middles[start];
+        } else {
+            return -1;
+        }
+    }
+
+}
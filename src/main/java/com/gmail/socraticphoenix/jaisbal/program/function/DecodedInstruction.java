@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.StackEffect;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+import com.gmail.socraticphoenix.plasma.string.CharacterStream;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class DecodedInstruction extends PlasmaObject {
+    private String source;
+    private String name;
+    private String arg;
+    private Instruction instruction;
+    private CastableValue[] value;
+    private boolean mutable;
+    private Superinstruction fused;
+    private boolean tail;
+    private boolean dead;
+    private boolean checked;
+    private volatile Target target;
+
+    public DecodedInstruction(String source) {
+        this.source = source;
+        String[] pieces = source.split(" ", 2);
+        if (pieces.length == 1) {
+            this.name = pieces[0];
+            this.arg = "";
+        } else {
+            this.name = pieces[0];
+            this.arg = pieces[1];
+        }
+        this.instruction = InstructionRegistry.getInstruction(this.name).orElse(null);
+        try {
+            this.value = Type.readValues(new CharacterStream(this.arg));
+            this.mutable = this.value.length != 1 || DecodedInstruction.isArray(this.value[0]);
+        } catch (Throwable ignore) {
+            //Arguments that can't be read fail when (and if) they are executed, see getValue()
+            this.value = null;
+        }
+    }
+
+    public static DecodedInstruction[] decode(List<String> instructions) {
+        DecodedInstruction[] decoded = new DecodedInstruction[instructions.size()];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = new DecodedInstruction(instructions.get(i));
+        }
+        return decoded;
+    }
+
+    private static boolean isArray(CastableValue value) {
+        return value != null && value.getValue().orElse(null) instanceof CastableValue[];
+    }
+
+    private static CastableValue[] copy(CastableValue[] values) {
+        CastableValue[] copy = new CastableValue[values.length];
+        for (int i = 0; i < values.length; i++) {
+            CastableValue value = values[i];
+            copy[i] = DecodedInstruction.isArray(value) ? CastableValue.of(DecodedInstruction.copy((CastableValue[]) value.getValue().get())) : value;
+        }
+        return copy;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getArg() {
+        return this.arg;
+    }
+
+    public Instruction getInstruction() {
+        return this.instruction;
+    }
+
+    public boolean isEmpty() {
+        return this.source.isEmpty();
+    }
+
+    public Superinstruction getFused() {
+        return this.fused;
+    }
+
+    public void setFused(Superinstruction fused) {
+        this.fused = fused;
+    }
+
+    //Whether this is a call that is only followed by end/return/else, see Function#markTailCalls
+    public boolean isTail() {
+        return this.tail;
+    }
+
+    public void setTail(boolean tail) {
+        this.tail = tail;
+    }
+
+    //Whether no path through the function reaches this instruction, see Function#markDeadCode
+    public boolean isDead() {
+        return this.dead;
+    }
+
+    public void setDead(boolean dead) {
+        this.dead = dead;
+    }
+
+    //Whether the operands of this instruction are known to be on the stack and of the right types, see Function#markCheckedCode
+    public boolean isChecked() {
+        return this.checked;
+    }
+
+    public void setChecked(boolean checked) {
+        this.checked = checked;
+    }
+
+    //The function or snippet this call site resolved to, or null if it hasn't been resolved since the program last imported anything
+    public Function getTarget(Program program) {
+        Target target = this.target;
+        return target != null && target.program == program && target.version == program.getVersion() ? target.function : null;
+    }
+
+    public void setTarget(Program program, Function function) {
+        this.target = new Target(program, program.getVersion(), function);
+    }
+
+    //Whether the given argument is the one read from this instruction (and not a copy or one supplied some other way)
+    public boolean isValue(CastableValue[] value) {
+        return this.value != null && this.value == value;
+    }
+
+    //The argument as a number, or null if it isn't a single plain number
+    public BigDecimal getNumber() {
+        if (this.value != null && this.value.length == 1) {
+            Object value = this.value[0].getValue().orElse(null);
+            return value instanceof BigDecimal ? (BigDecimal) value : null;
+        } else {
+            return null;
+        }
+    }
+
+    //The type of the argument as a single value, or null if it isn't a plain number or string
+    public Type getType() {
+        return this.value != null && this.value.length == 1 ? StackEffect.typeOf(this.value[0]) : null;
+    }
+
+    public CastableValue[] getValue() {
+        if (this.value == null) {
+            return Type.readValues(new CharacterStream(this.arg));
+        } else if (this.mutable) {
+            return DecodedInstruction.copy(this.value);
+        } else {
+            return this.value;
+        }
+    }
+
+    private static class Target {
+        private final Program program;
+        private final int version;
+        private final Function function;
+
+        public Target(Program program, int version, Function function) {
+            this.program = program;
+            this.version = version;
+            this.function = function;
+        }
+
+    }
+
+}
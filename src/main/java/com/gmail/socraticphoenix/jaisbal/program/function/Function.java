@@ -24,31 +24,62 @@ package com.gmail.socraticphoenix.jaisbal.program.function;
 
 import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.SecurityMonitor;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ArrayInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ConditionalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ControlFlowInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.FundamentalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.MathematicalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.StackEffect;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 import com.gmail.socraticphoenix.plasma.string.BracketCounter;
 import com.gmail.socraticphoenix.plasma.string.CharacterStream;
 import com.gmail.socraticphoenix.plasma.string.StringParseException;
 
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Stack;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class Function extends PlasmaObject {
+    public static final List<Instruction> SKIPS = Collections.unmodifiableList(Arrays.asList(
+            ConditionalInstructions.EQUAL, ConditionalInstructions.NOT_EQUAL, ConditionalInstructions.GREATER, ConditionalInstructions.LESS, ConditionalInstructions.GREATER_EQUAL, ConditionalInstructions.LESS_EQUAL,
+            ConditionalInstructions.EQUAL_ALL, ConditionalInstructions.NOT_EQUAL_ALL, ConditionalInstructions.GREATER_ALL, ConditionalInstructions.LESS_ALL, ConditionalInstructions.GREATER_EQUAL_ALL, ConditionalInstructions.LESS_EQUAL_ALL,
+            ConditionalInstructions.IF_TRUTHY, ConditionalInstructions.IF_FALSEY));
+    private static final Set<Instruction> IMPURE = new HashSet<>(Arrays.asList(
+            FundamentalInstructions.IMPORT, FundamentalInstructions.IMPORT_UTF8, FundamentalInstructions.AUX_FUNCTION,
+            MathematicalInstructions.Functions.RAND_DECIMAL, MathematicalInstructions.Functions.RAND_INTEGER, MathematicalInstructions.Functions.RAND_INTEGER_BOUNDED,
+            MathematicalInstructions.Functions.RAND_INTEGER_BOUNDED_1, MathematicalInstructions.Functions.RAND_INTEGER_DOUBLE_BOUNDED, ArrayInstructions.SHUFFLE));
+    private static int cacheSize = 0;
+
     private Program program;
     private String name;
     private String content;
     private List<String> instructions;
+    private DecodedInstruction[] decoded;
+    private BlockTable blocks;
     private List<Type> parameters;
     private boolean implicitInput;
     private boolean verbose;
+    private Boolean pure;
+    private FunctionCache cache;
+    private volatile SecurityMonitor secured;
 
     public Function(String name, String content, List<Type> parameters, boolean verbose, boolean implicitInput) throws JAISBaLExecutionException {
         this.name = name;
@@ -72,7 +103,7 @@ public class Function extends PlasmaObject {
         counter.registerBrackets('[', ']');
         while (stream.hasNext()) {
             char c = stream.next().get();
-            Optional<Instruction> instructionOptional = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.getId() == c).findFirst();
+            Optional<Instruction> instructionOptional = InstructionRegistry.getInstruction(c);
             if (instructionOptional.isPresent()) {
                 Instruction instruction = instructionOptional.get();
                 StringBuilder builder = new StringBuilder();
@@ -108,7 +139,7 @@ public class Function extends PlasmaObject {
     }
 
     public static boolean exists(String name) {
-        return InstructionRegistry.getAccessibleInstructions().stream().filter(entry -> entry.isName(name)).findFirst().isPresent();
+        return InstructionRegistry.getInstruction(name).isPresent();
     }
 
     public static Function parse(String s, boolean verbose) throws StringParseException, JAISBaLExecutionException {
@@ -162,6 +193,177 @@ public class Function extends PlasmaObject {
         } else {
             this.instructions = Function.instructions(this.getContent());
         }
+        this.instructions = Collections.unmodifiableList(this.instructions);
+        this.decoded = DecodedInstruction.decode(this.instructions);
+        this.blocks = new BlockTable(this.decoded);
+        Function.markTailCalls(this.decoded, this.blocks);
+    }
+
+    //Runs once the program is verified, only the decoded instructions change so explain and minify still show the source
+    public void optimize() throws JAISBaLExecutionException {
+        List<List<Integer>> flow = Function.flow(this.decoded, this.blocks);
+        if (flow != null) {
+            Function.markDeadCode(this.decoded, flow);
+            Function.markCheckedCode(this.decoded, flow);
+        }
+        Superinstruction.fold(this.decoded, this.blocks, this.program);
+        Superinstruction.fuse(this.decoded);
+    }
+
+    //Every way control can move on from each instruction (erring on the side of too many), or null if that can't be worked out
+    private static List<List<Integer>> flow(DecodedInstruction[] code, BlockTable blocks) {
+        int n = code.length;
+        int[] starts = new int[n + 1];
+        Arrays.fill(starts, -1);
+        List<Integer> breaks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Instruction entry = code[i].getInstruction();
+            if ((entry == null && !code[i].isEmpty()) || entry == FundamentalInstructions.AUX_FUNCTION) {
+                return null;
+            } else if (Function.isBlockStart(entry)) {
+                int end = blocks.getEnd(i);
+                if (end < 0) {
+                    return null;
+                }
+                starts[end] = i;
+                breaks.add(end);
+                breaks.add(end + 1);
+            }
+        }
+
+        List<List<Integer>> flow = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<Integer> next = new ArrayList<>();
+            Instruction entry = code[i].getInstruction();
+            if (entry == null) {
+                next.add(i + 1);
+            } else if (entry == ControlFlowInstructions.RETURN) {
+                //Leaves the function
+            } else if (entry == ControlFlowInstructions.BREAK) {
+                next.addAll(breaks);
+            } else if (entry == ControlFlowInstructions.RELATIVE_JUMP || entry == ControlFlowInstructions.INDEX_JUMP) {
+                BigDecimal target = code[i].getNumber();
+                if (target == null) {
+                    return null;
+                }
+                next.add(Math.max(entry == ControlFlowInstructions.RELATIVE_JUMP ? i + target.intValue() : target.intValue(), 0));
+            } else if (entry == ControlFlowInstructions.ELSE || Function.isBlockStart(entry)) {
+                int end = blocks.getEnd(i);
+                int middle = blocks.getMiddle(i);
+                if (end < 0 || (entry == ControlFlowInstructions.IF_ELSE_BLOCK && middle < 0)) {
+                    return null;
+                }
+                next.add(i + 1);
+                next.add(end);
+                next.add(end + 1);
+                if (middle >= 0) {
+                    next.add(middle);
+                    next.add(middle + 1);
+                }
+            } else if (entry == ControlFlowInstructions.END) {
+                next.add(i + 1);
+                if (starts[i] >= 0) {
+                    next.add(starts[i] + 1);
+                }
+            } else {
+                next.add(i + 1);
+                if (Function.SKIPS.contains(entry)) {
+                    next.add(i + 2);
+                }
+            }
+            flow.add(next.stream().map(j -> Math.min(j, n)).collect(Collectors.toList()));
+        }
+        return flow;
+    }
+
+    //Marks the instructions no path through the function reaches
+    private static void markDeadCode(DecodedInstruction[] code, List<List<Integer>> flow) {
+        int n = code.length;
+        boolean[] reached = new boolean[n + 1];
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(0);
+        while (!pending.isEmpty()) {
+            int i = pending.pop();
+            if (!reached[i]) {
+                reached[i] = true;
+                if (i < n) {
+                    flow.get(i).forEach(pending::push);
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            code[i].setDead(!reached[i]);
+        }
+    }
+
+    //Follows the types pushed since control last arrived from somewhere other than the previous instruction, and marks the instructions whose operands are sure to be there and to fit
+    private static void markCheckedCode(DecodedInstruction[] code, List<List<Integer>> flow) {
+        int n = code.length;
+        boolean[] joins = new boolean[n + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j : flow.get(i)) {
+                if (j != i + 1) {
+                    joins[j] = true;
+                }
+            }
+        }
+
+        List<Type> known = new ArrayList<>(); //top first, null where the type isn't known
+        for (int i = 0; i < n; i++) {
+            if (joins[i] || code[i].isDead()) {
+                known.clear();
+            }
+            Instruction entry = code[i].getInstruction();
+            StackEffect effect = entry == null ? null : entry.getStackEffect();
+            code[i].setChecked(effect != null && effect.accepts(known));
+            if (effect != null) {
+                List<Type> popped = known.subList(0, Math.min(effect.getInputs().size(), known.size()));
+                List<Type> pushed = effect.apply(popped, code[i].getType());
+                popped.clear();
+                pushed.forEach(t -> known.add(0, t));
+            } else if (entry != null) {
+                known.clear();
+            }
+        }
+    }
+
+    private static boolean isBlockStart(Instruction entry) {
+        return entry != null && entry != ControlFlowInstructions.ELSE && InstructionRegistry.getBlockStarts().contains(entry.getMainAlias());
+    }
+
+    private static void markTailCalls(DecodedInstruction[] code, BlockTable blocks) {
+        boolean[] loopEnds = new boolean[code.length + 1];
+        for (int i = 0; i < code.length; i++) {
+            Instruction entry = code[i].getInstruction();
+            if (entry == ControlFlowInstructions.FOR_LOOP || entry == ControlFlowInstructions.WHILE || entry == ControlFlowInstructions.DO_WHILE) {
+                int end = blocks.getEnd(i);
+                if (end >= 0) {
+                    loopEnds[end] = true;
+                }
+            }
+        }
+
+        //finishes[i]: running from i to the end of the function has no effect, nothing but end/return/else is executed on the way
+        boolean[] finishes = new boolean[code.length + 1];
+        finishes[code.length] = true;
+        for (int i = code.length - 1; i >= 0; i--) {
+            Instruction entry = code[i].getInstruction();
+            if (code[i].isEmpty()) {
+                finishes[i] = finishes[i + 1];
+            } else if (entry == ControlFlowInstructions.RETURN) {
+                finishes[i] = true;
+            } else if (entry == ControlFlowInstructions.END) {
+                finishes[i] = !loopEnds[i] && finishes[i + 1];
+            } else if (entry == ControlFlowInstructions.ELSE) {
+                int end = blocks.getEnd(i);
+                finishes[i] = end >= 0 && finishes[Math.min(end, code.length)];
+            }
+
+            if (entry == FundamentalInstructions.FUNCTION || entry == FundamentalInstructions.CHAR_FUNCTION) {
+                code[i].setTail(finishes[i + 1]);
+            }
+        }
     }
 
     public String explain(int indent) throws JAISBaLExecutionException {
@@ -192,11 +394,136 @@ public class Function extends PlasmaObject {
     }
 
     public State runAsSurrogate(FunctionContext parent) throws JAISBaLExecutionException {
+        this.secure();
         return this.createSurrogateContext(parent).run();
     }
 
-    public State run(Stack<CastableValue> parent) throws JAISBaLExecutionException {
-        return this.createContext().run(parent);
+    public State run(ValueStack parent) throws JAISBaLExecutionException {
+        this.secure();
+        FunctionCache cache = this.getCache();
+        List<Object> key = cache == null ? null : FunctionCache.key(parent, this.parameters.size());
+        if (key != null) {
+            CastableValue[] result = cache.get(key);
+            if (result != null) {
+                if (!this.parameters.isEmpty()) {
+                    parent.truncate(parent.size() - this.parameters.size());
+                    parent.pushAll(result);
+                }
+                return State.NORMAL;
+            }
+        }
+
+        int base = parent.size() - this.parameters.size();
+        FunctionContext context = FunctionContext.acquire(this, this.program);
+        State state;
+        try {
+            state = context.runCall(parent);
+        } finally {
+            context.release();
+        }
+        if (key != null && state == State.NORMAL && parent.size() >= base) {
+            cache.put(key, parent.slice(base, parent.size()));
+        }
+        return state;
+    }
+
+    public static int getCacheSize() {
+        return Function.cacheSize;
+    }
+
+    //Remembers up to cacheSize results for each pure function, 0 turns memoization off
+    public static void setCacheSize(int cacheSize) {
+        Function.cacheSize = cacheSize;
+    }
+
+    public FunctionCache getCache() {
+        if (Function.cacheSize <= 0 || !this.isPure()) {
+            return null;
+        } else if (this.cache == null || this.cache.getCapacity() != Function.cacheSize) {
+            this.cache = new FunctionCache(Function.cacheSize);
+        }
+        return this.cache;
+    }
+
+    //A function is pure if it only touches its own stack, locals and the caller's stack, so each call only depends on its arguments
+    public boolean isPure() {
+        if (this.pure == null) {
+            this.pure = this.isPure(new HashSet<>());
+        }
+        return this.pure;
+    }
+
+    private boolean isPure(Set<Function> visiting) {
+        if (this.pure != null) {
+            return this.pure;
+        } else if (this.implicitInput || this.decoded == null || this.program == null) {
+            return false;
+        } else if (!visiting.add(this)) {
+            return true; //recursion doesn't make a function impure by itself
+        }
+
+        for (DecodedInstruction instruction : this.decoded) {
+            Instruction entry = instruction.getInstruction();
+            if (instruction.isEmpty()) {
+                continue;
+            } else if (entry == null || Function.IMPURE.contains(entry) || entry.getDangerLevel() > 0 || (int) entry.getGroup() == 1 || InstructionRegistry.getSupplementaryInstructions().contains(entry)) {
+                return false;
+            } else if (entry == FundamentalInstructions.FUNCTION || entry == FundamentalInstructions.CHAR_FUNCTION || entry == FundamentalInstructions.SNIPPET || entry == FundamentalInstructions.CHAR_SNIPPET) {
+                Optional<Function> callee = Function.callee(instruction, this.program);
+                if (!callee.isPresent() || !callee.get().isPure(visiting)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //Checks every instruction this function can reach against the security monitor, following calls whose target is known
+    //before running. Calls that can only be resolved later (to imported functions, for example) are checked when they resolve,
+    //see InstructionUtility#target. Every entry point calls this, it only walks the code again once the monitor changes
+    public void secure() throws JAISBaLExecutionException {
+        SecurityMonitor monitor = InstructionRegistry.getMonitor();
+        if (monitor != null && this.secured != monitor) {
+            this.secure(monitor, new HashSet<>());
+        }
+    }
+
+    private void secure(SecurityMonitor monitor, Set<Function> visiting) throws JAISBaLExecutionException {
+        if (this.secured == monitor || this.decoded == null || !visiting.add(this)) {
+            return;
+        }
+
+        for (int i = 0; i < this.decoded.length; i++) {
+            DecodedInstruction instruction = this.decoded[i];
+            Instruction entry = instruction.getInstruction();
+            if (instruction.isEmpty() || entry == null) {
+                continue;
+            } else if (entry instanceof AuxiliaryInstruction) {
+                entry = AuxiliaryInstruction.target(instruction).orElse(entry);
+            }
+            if (!monitor.permits(entry)) {
+                throw new JAISBaLExecutionException(monitor.denial(entry) + " (function: " + this.name + ", current index: " + i + ")");
+            }
+            Optional<Function> callee = Function.callee(instruction, this.program);
+            if (callee.isPresent()) {
+                callee.get().secure(monitor, visiting);
+            }
+        }
+        this.secured = monitor;
+    }
+
+    private static Optional<Function> callee(DecodedInstruction instruction, Program program) {
+        try {
+            CastableValue[] value = instruction.getValue();
+            if (value.length != 1 || !ValueUtility.isString(value[0])) {
+                return Optional.empty();
+            }
+            String name = ValueUtility.string(value[0]);
+            Instruction entry = instruction.getInstruction();
+            return entry == FundamentalInstructions.SNIPPET || entry == FundamentalInstructions.CHAR_SNIPPET ? program.getSnippet(name) : program.getFunction(name);
+        } catch (Throwable ignore) {
+            return Optional.empty();
+        }
     }
 
     public List<Type> getParameters() {
@@ -223,6 +550,14 @@ public class Function extends PlasmaObject {
         return this.instructions;
     }
 
+    public DecodedInstruction[] getDecodedInstructions() {
+        return this.decoded;
+    }
+
+    public BlockTable getBlockTable() {
+        return this.blocks;
+    }
+
     public boolean isImplicitInput() {
         return this.implicitInput;
     }
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Bounded LRU cache of call results for a pure function, keyed on its arguments
+public class FunctionCache extends PlasmaObject {
+    private int capacity;
+    private Map<List<Object>, CastableValue[]> results;
+
+    public FunctionCache(int capacity) {
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<List<Object>, CastableValue[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CastableValue[]> eldest) {
+                return this.size() > FunctionCache.this.capacity;
+            }
+        };
+    }
+
+    //Only numbers and strings are immutable, so only calls made with those can be looked up
+    private static boolean isCacheable(CastableValue value) {
+        Object raw = value == null ? null : value.getValue().orElse(null);
+        return raw instanceof BigDecimal || raw instanceof String;
+    }
+
+    //The arguments on top of the stack as a key, or null if the call can't be cached
+    public static List<Object> key(ValueStack stack, int arity) {
+        if (stack.size() < arity) {
+            return null;
+        }
+        List<Object> key = new ArrayList<>(arity);
+        for (CastableValue value : stack.slice(stack.size() - arity, stack.size())) {
+            if (!FunctionCache.isCacheable(value)) {
+                return null;
+            }
+            key.add(value.getValue().get());
+        }
+        return key;
+    }
+
+    public synchronized CastableValue[] get(List<Object> key) {
+        return this.results.get(key);
+    }
+
+    //Remembers the values pushed by a call, results that aren't plain numbers or strings are not remembered
+    public synchronized void put(List<Object> key, List<CastableValue> result) {
+        for (CastableValue value : result) {
+            if (!FunctionCache.isCacheable(value)) {
+                return;
+            }
+        }
+        this.results.put(key, result.toArray(new CastableValue[result.size()]));
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+}
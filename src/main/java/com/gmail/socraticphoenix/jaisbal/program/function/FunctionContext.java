@@ -24,13 +24,18 @@ package com.gmail.socraticphoenix.jaisbal.program.function;
 
 import com.gmail.socraticphoenix.jaisbal.JAISBaL;
 import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Locals;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.engine.Engine;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Opcodes;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryConstant;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
 import com.gmail.socraticphoenix.plasma.base.Triple;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
@@ -42,31 +47,45 @@ import com.gmail.socraticphoenix.plasma.string.StringFormat;
 import com.gmail.socraticphoenix.plasma.string.StringParseException;
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class FunctionContext extends PlasmaObject {
+    private static Engine engine = Engine.INTERPRETER;
+    //Contexts for calls that have returned, see FunctionContext#acquire
+    private static final ThreadLocal<ArrayDeque<FunctionContext>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final int MAX_POOLED_FRAMES = 64;
+
     private CastableValue[] currentArg;
     private Function function;
     private List<String> instructions;
-    private Stack<CastableValue> stack;
-    private Stack<CastableValue> parent;
-    private Map<Long, CastableValue> locals;
+    private DecodedInstruction[] decoded;
+    private BlockTable blocks;
+    private ValueStack stack;
+    private ValueStack parent;
+    private Locals locals;
     private Program program;
     private int current;
     private List<Type> parameters;
     private AtomicBoolean running;
+    private ValueStack discard;
+    private ValueStack spare; //the stack tail calls alternate with, see runCall
+    private boolean call;
+    private Function tailCall;
+    private boolean checked;
 
-    public FunctionContext(Function function, List<Type> parameters, List<String> instructions, Stack<CastableValue> stack, Stack<CastableValue> parent, Map<Long, CastableValue> locals, Program program) {
+    public FunctionContext(Function function, List<Type> parameters, List<String> instructions, DecodedInstruction[] decoded, BlockTable blocks, ValueStack stack, ValueStack parent, Locals locals, Program program) {
         this.function = function;
         this.instructions = instructions;
+        this.decoded = decoded;
+        this.blocks = blocks;
         this.stack = stack;
         this.parent = parent;
         this.locals = locals;
@@ -74,14 +93,68 @@ public class FunctionContext extends PlasmaObject {
         this.current = 0;
         this.parameters = parameters;
         this.running = new AtomicBoolean(true);
+        this.discard = parent;
+    }
+
+    public FunctionContext(Function function, List<Type> parameters, List<String> instructions, DecodedInstruction[] decoded, ValueStack stack, ValueStack parent, Locals locals, Program program) {
+        this(function, parameters, instructions, decoded, new BlockTable(decoded), stack, parent, locals, program);
+    }
+
+    public FunctionContext(Function function, List<Type> parameters, List<String> instructions, ValueStack stack, ValueStack parent, Locals locals, Program program) {
+        this(function, parameters, instructions, DecodedInstruction.decode(instructions), stack, parent, locals, program);
     }
 
     public FunctionContext(Function function, Program program) {
-        this(function, PlasmaListUtil.looseClone(function.getParameters()), PlasmaListUtil.looseClone(function.getInstructions()), new Stack<>(), new Stack<>(), new LinkedHashMap<>(), program);
+        this(function, function.getParameters(), function.getInstructions(), function.getDecodedInstructions(), function.getBlockTable(), new ValueStack(), new ValueStack(), new Locals(), program);
     }
 
     public static FunctionContext surrogate(Function function, FunctionContext other) {
-        return new FunctionContext(function, PlasmaListUtil.looseClone(function.getParameters()), PlasmaListUtil.looseClone(function.getInstructions()), other.getStack(), other.getParentStack(), other.getLocals(), other.getProgram());
+        return new FunctionContext(function, function.getParameters(), function.getInstructions(), function.getDecodedInstructions(), function.getBlockTable(), other.getStack(), other.getParentStack(), other.getLocals(), other.getProgram());
+    }
+
+    //A fresh context for a call, reusing one from a call on this thread that has already returned. Must be given back with release()
+    public static FunctionContext acquire(Function function, Program program) {
+        FunctionContext context = FunctionContext.frames.get().poll();
+        if (context == null) {
+            context = new FunctionContext(function, program);
+            context.call = true;
+            return context;
+        }
+        context.function = function;
+        context.parameters = function.getParameters();
+        context.instructions = function.getInstructions();
+        context.decoded = function.getDecodedInstructions();
+        context.blocks = function.getBlockTable();
+        context.program = program;
+        return context;
+    }
+
+    public void release() {
+        this.stack.clear();
+        if (this.spare != null) {
+            this.spare.clear();
+        }
+        this.locals.clear();
+        this.discard.clear();
+        this.parent = this.discard;
+        this.current = 0;
+        this.currentArg = null;
+        this.running.set(true);
+        this.tailCall = null;
+        this.function = null;
+        this.program = null;
+        ArrayDeque<FunctionContext> frames = FunctionContext.frames.get();
+        if (frames.size() < FunctionContext.MAX_POOLED_FRAMES) {
+            frames.push(this);
+        }
+    }
+
+    public static Engine getEngine() {
+        return FunctionContext.engine;
+    }
+
+    public static void setEngine(Engine engine) {
+        FunctionContext.engine = engine;
     }
 
     public static String valueToString(CastableValue value) {
@@ -103,14 +176,15 @@ public class FunctionContext extends PlasmaObject {
                 i++;
             }
             builder.append("}");
-        } else if (value.getValueAs(CastableValue[].class).isPresent()) {
+        } else if (ValueUtility.isArray(value)) {
             builder.append("[");
-            CastableValue[] array = value.getValueAs(CastableValue[].class).get();
-            for (int i = 0; i < array.length; i++) {
-                CastableValue val = array[i];
+            int length = ValueUtility.length(value);
+            for (int i = 0; i < length; i++) {
+                CastableValue val = ValueUtility.element(value, i);
                 if (val != null && val.getValue().isPresent()) {
-                    builder.append(FunctionContext.valueToString(array[i]));
-                    if (i < array.length - 1 && array[i + 1] != null && array[i + 1].getValue().isPresent()) {
+                    builder.append(FunctionContext.valueToString(val));
+                    CastableValue next = i < length - 1 ? ValueUtility.element(value, i + 1) : null;
+                    if (next != null && next.getValue().isPresent()) {
                         builder.append(", ");
                     }
                 }
@@ -129,35 +203,42 @@ public class FunctionContext extends PlasmaObject {
         return builder.toString();
     }
 
+    public static JAISBaLExecutionException executionError(DecodedInstruction instruction, Instruction entry, int index, Throwable cause) {
+        return new JAISBaLExecutionException(() -> "Invalid state: error while executing instruction :" + instruction.getSource() + (entry != null ? " (main alias: " + entry.getMainAlias() + ")" : "") + " (current index: " + index + ")", cause);
+    }
+
+    //Dispatches the instruction, skipping the operand checks the instruction was proven not to need
+    public static State dispatch(DecodedInstruction instruction, Instruction entry, FunctionContext context) throws Throwable {
+        context.checked = instruction.isChecked();
+        try {
+            return Opcodes.dispatch(entry, context);
+        } finally {
+            context.checked = false;
+        }
+    }
+
     public static State run(FunctionContext context, int end, Predicate<FunctionContext> transmitJump) throws JAISBaLExecutionException {
         while (context.currentExists() && context.running.get() && context.getCurrent() <= end) {
-            String instruction = context.getCurrentAndStep();
+            DecodedInstruction instruction = context.getCurrentDecodedAndStep();
             Instruction entry = null;
             try {
-                if (!instruction.equals("")) {
-                    String name;
-                    String arg;
-                    String[] pieces = instruction.split(" ", 2);
-                    if (pieces.length == 1) {
-                        name = pieces[0];
-                        arg = "";
-                    } else {
-                        name = pieces[0];
-                        arg = pieces[1];
-                    }
-                    if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                        entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
-                        context.currentArg = Type.readValues(new CharacterStream(arg));
-                        State state = entry.getAction().apply(context);
+                if (!instruction.isEmpty()) {
+                    if (instruction.getInstruction() != null) {
+                        entry = instruction.getInstruction();
+                        context.currentArg = instruction.getValue();
+                        State state = instruction.getFused() == null ? null : instruction.getFused().apply(context);
+                        if (state == null) {
+                            state = FunctionContext.dispatch(instruction, entry, context);
+                        }
                         if (state.isTransmit() || (state == State.JUMPED && transmitJump.test(context))) {
                             return state;
                         }
                     } else {
-                        throw new JAISBaLExecutionException("Invalid name: no instruction called: " + name + " (current index: " + (context.getCurrent() - 1) + ")");
+                        throw new JAISBaLExecutionException("Invalid name: no instruction called: " + instruction.getName() + " (current index: " + (context.getCurrent() - 1) + ")");
                     }
                 }
             } catch (Throwable e) {
-                throw new JAISBaLExecutionException("Invalid state: error while executing instruction :" + instruction + (entry != null ? " (main alias: " + entry.getMainAlias() + ")" : "") + " (current index: " + (context.getCurrent() - 1) + ")", e);
+                throw FunctionContext.executionError(instruction, entry, context.getCurrent() - 1, e);
             }
         }
         return State.NORMAL;
@@ -165,33 +246,26 @@ public class FunctionContext extends PlasmaObject {
 
     public static State run(FunctionContext context) throws JAISBaLExecutionException {
         while (context.currentExists() && context.running.get()) {
-            String instruction = context.getCurrentAndStep();
+            DecodedInstruction instruction = context.getCurrentDecodedAndStep();
             Instruction entry = null;
             try {
-                if (!instruction.equals("")) {
-                    String name;
-                    String arg;
-                    String[] pieces = instruction.split(" ", 2);
-                    if (pieces.length == 1) {
-                        name = pieces[0];
-                        arg = "";
-                    } else {
-                        name = pieces[0];
-                        arg = pieces[1];
-                    }
-                    if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                        entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
-                        context.currentArg = Type.readValues(new CharacterStream(arg));
-                        State state = entry.getAction().apply(context);
+                if (!instruction.isEmpty()) {
+                    if (instruction.getInstruction() != null) {
+                        entry = instruction.getInstruction();
+                        context.currentArg = instruction.getValue();
+                        State state = instruction.getFused() == null ? null : instruction.getFused().apply(context);
+                        if (state == null) {
+                            state = FunctionContext.dispatch(instruction, entry, context);
+                        }
                         if (state.isTransmit()) {
                             return State.NORMAL;
                         }
                     } else {
-                        throw new JAISBaLExecutionException("Invalid name: no instruction called: " + name + " (current index: " + (context.getCurrent() - 1) + ")");
+                        throw new JAISBaLExecutionException("Invalid name: no instruction called: " + instruction.getName() + " (current index: " + (context.getCurrent() - 1) + ")");
                     }
                 }
             } catch (Throwable e) {
-                throw new JAISBaLExecutionException("Invalid state: error while executing instruction :" + instruction + (entry != null ? " (main alias: " + entry.getMainAlias() + ")" : "") + " (current index: " + (context.getCurrent() - 1) + ")", e);
+                throw FunctionContext.executionError(instruction, entry, context.getCurrent() - 1, e);
             }
         }
         return State.NORMAL;
@@ -213,8 +287,9 @@ public class FunctionContext extends PlasmaObject {
                     arg = pieces[1];
                 }
 
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+                Optional<Instruction> instructionOptional = InstructionRegistry.getInstruction(name);
+                if (instructionOptional.isPresent()) {
+                    Instruction entry = instructionOptional.get();
                     if (entry.getAliases().stream().filter(InstructionRegistry.getBlockEnds()::contains).findFirst().isPresent()) {
                         indent--;
                     }
@@ -256,6 +331,10 @@ public class FunctionContext extends PlasmaObject {
                         builder.append("(").append(Program.valueToString(aux)).append(")");
 
                     }
+                    Superinstruction fused = context.getDecodedInstructions() == null ? null : context.getDecodedInstructions()[counter].getFused();
+                    if (fused != null) {
+                        builder.append("(fused: ").append(fused.getName()).append(")");
+                    }
                 } catch (NumberFormatException | IndexOutOfBoundsException ignore) {
 
                 }
@@ -294,8 +373,9 @@ public class FunctionContext extends PlasmaObject {
                     name = pieces[0];
                     arg = pieces[1];
                 }
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+                Optional<Instruction> instructionOptional = InstructionRegistry.getInstruction(name);
+                if (instructionOptional.isPresent()) {
+                    Instruction entry = instructionOptional.get();
                     builder.append(entry.getId()).append(arg);
                 } else {
                     throw new JAISBaLExecutionException("Invalid name: no instruction called: " + name + " (current index: " + (context.getCurrent() - 1) + ")");
@@ -319,8 +399,9 @@ public class FunctionContext extends PlasmaObject {
                     name = pieces[0];
                     arg = pieces[1];
                 }
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+                Optional<Instruction> instructionOptional = InstructionRegistry.getInstruction(name);
+                if (instructionOptional.isPresent()) {
+                    Instruction entry = instructionOptional.get();
                     String test = null;
                     try {
                         test = entry.getValueReader().apply(new CharacterStream(arg));
@@ -339,6 +420,16 @@ public class FunctionContext extends PlasmaObject {
         }
     }
 
+    //Whether the instruction being dispatched has its operands on the stack with the right types, see Function#markCheckedCode
+    public boolean isChecked() {
+        return this.checked;
+    }
+
+    //For engines that call instruction actions without going through dispatch
+    public void setChecked(boolean checked) {
+        this.checked = checked;
+    }
+
     public boolean isImplicitInput() {
         return this.function.isImplicitInput();
     }
@@ -352,7 +443,7 @@ public class FunctionContext extends PlasmaObject {
     }
 
     public FunctionContext clone() {
-        FunctionContext context = new FunctionContext(this.function, this.parameters, this.instructions, this.stack, this.parent, this.locals, this.program);
+        FunctionContext context = new FunctionContext(this.function, this.parameters, this.instructions, this.decoded, this.blocks, this.stack, this.parent, this.locals, this.program);
         context.current = this.current;
         context.currentArg = this.currentArg;
         context.running = this.running;
@@ -373,34 +464,27 @@ public class FunctionContext extends PlasmaObject {
     }
 
     public int subsetIndex(String begin, String end, int z, int j) {
-        int i;
-        for (i = this.current - j; i < this.instructions.size(); i++) {
-            String instruction = this.instruction(i);
-            String name;
-            String arg;
-            String[] pieces = instruction.split(" ", 2);
-            if (pieces.length == 1) {
-                name = pieces[0];
-                arg = "";
-            } else {
-                name = pieces[0];
-                arg = pieces[1];
+        if (z == 0 && j == 1 && this.isBlock(begin, null, end) && !this.blocks.isFloofy(this.current - 1)) {
+            int index = this.blocks.getEnd(this.current - 1);
+            if (index != -1) {
+                return index;
             }
-            if (Function.exists(name)) {
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+        }
 
-                    if (entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) {
-                        z++;
-                    }
+        int i;
+        for (i = this.current - j; i < this.decoded.length; i++) {
+            Instruction entry = this.decoded[i].getInstruction();
+            if (entry != null) {
+                if (entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) {
+                    z++;
+                }
 
-                    if (entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) {
-                        z--;
-                    }
+                if (entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) {
+                    z--;
+                }
 
-                    if (z == 0) {
-                        break;
-                    }
+                if (z == 0) {
+                    break;
                 }
             }
         }
@@ -413,34 +497,27 @@ public class FunctionContext extends PlasmaObject {
     }
 
     public int subsetIndexDuplexEnd(String begin, String middle, String end, int z, int j) {
-        int i;
-        for (i = this.current - j; i < this.instructions.size(); i++) {
-            String instruction = this.instruction(i);
-            String name;
-            String arg;
-            String[] pieces = instruction.split(" ", 2);
-            if (pieces.length == 1) {
-                name = pieces[0];
-                arg = "";
-            } else {
-                name = pieces[0];
-                arg = pieces[1];
+        if (z == 0 && j == 1 && this.isBlock(begin, middle, end) && !this.blocks.isFloofy(this.current - 1)) {
+            int index = this.blocks.getEnd(this.current - 1);
+            if (index != -1) {
+                return index;
             }
-            if (Function.exists(name)) {
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+        }
 
-                    if ((entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) && !entry.isName(middle)) {
-                        z++;
-                    }
+        int i;
+        for (i = this.current - j; i < this.decoded.length; i++) {
+            Instruction entry = this.decoded[i].getInstruction();
+            if (entry != null) {
+                if ((entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) && !entry.isName(middle)) {
+                    z++;
+                }
 
-                    if ((entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) && !entry.isName(middle)) {
-                        z--;
-                    }
+                if ((entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) && !entry.isName(middle)) {
+                    z--;
+                }
 
-                    if (z == 0) {
-                        break;
-                    }
+                if (z == 0) {
+                    break;
                 }
             }
         }
@@ -453,34 +530,27 @@ public class FunctionContext extends PlasmaObject {
     }
 
     public int subsetIndexDuplexMiddle(String begin, String middle, String end, int z, int j) {
-        int i;
-        for (i = this.current - j; i < this.instructions.size(); i++) {
-            String instruction = this.instruction(i);
-            String name;
-            String arg;
-            String[] pieces = instruction.split(" ", 2);
-            if (pieces.length == 1) {
-                name = pieces[0];
-                arg = "";
-            } else {
-                name = pieces[0];
-                arg = pieces[1];
+        if (((z == 0 && j == 1) || (z == 1 && j == 0)) && this.isBlock(begin, middle, end)) {
+            int index = this.blocks.isFloofy(this.current - 1) ? (z == 1 ? this.blocks.getEnd(this.current - 1) : -1) : this.blocks.getMiddle(this.current - 1);
+            if (index != -1) {
+                return index;
             }
-            if (Function.exists(name)) {
-                if (InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().isPresent()) {
-                    Instruction entry = InstructionRegistry.getAccessibleInstructions().stream().filter(e -> e.isName(name)).findFirst().get();
+        }
 
-                    if ((entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) && !entry.isName(middle)) {
-                        z++;
-                    }
+        int i;
+        for (i = this.current - j; i < this.decoded.length; i++) {
+            Instruction entry = this.decoded[i].getInstruction();
+            if (entry != null) {
+                if ((entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) && !entry.isName(middle)) {
+                    z++;
+                }
 
-                    if ((entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) && !entry.isName(middle)) {
-                        z--;
-                    }
+                if ((entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) && !entry.isName(middle)) {
+                    z--;
+                }
 
-                    if (z == 0 || (z == 1 && entry.isName(middle))) {
-                        break;
-                    }
+                if (z == 0 || (z == 1 && entry.isName(middle))) {
+                    break;
                 }
             }
         }
@@ -488,11 +558,18 @@ public class FunctionContext extends PlasmaObject {
         return i;
     }
 
+    private boolean isBlock(String begin, String middle, String end) {
+        return InstructionRegistry.getBlockStarts().contains(begin) && InstructionRegistry.getBlockEnds().contains(end) && (middle == null || InstructionRegistry.getFloofyBlocks().contains(middle));
+    }
 
     public void terminate() {
         this.running.set(false);
     }
 
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
     public String instruction(int index) {
         return this.instructions.get(index);
     }
@@ -507,7 +584,8 @@ public class FunctionContext extends PlasmaObject {
 
     public void runAsMain() throws JAISBaLExecutionException, StringParseException {
         try {
-            this.parent = new Stack<>();
+            this.function.secure();
+            this.parent = new ValueStack();
             List<Type> params = PlasmaListUtil.looseClone(this.function.getParameters());
             List<CastableValue> vals = new ArrayList<>();
             if (params.size() != 1 || !params.get(0).isImplicit()) {
@@ -541,22 +619,22 @@ public class FunctionContext extends PlasmaObject {
                 }
             }
             PlasmaListUtil.reverseList(vals).forEach(this.getStack()::push);
-            FunctionContext.run(this);
+            FunctionContext.getEngine().run(this);
 
             if (this.running.get()) {
                 JAISBaL.getOut().println(System.lineSeparator() + System.lineSeparator() + PlasmaStringUtil.indent(20, "-"));
-                JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray(new CastableValue[0]))));
-                JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals())));
+                JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray())));
+                JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals().toMap())));
             } else {
                 JAISBaL.getOut().println("Program Terminated");
                 JAISBaL.getOut().println(System.lineSeparator() + System.lineSeparator() + PlasmaStringUtil.indent(20, "-"));
-                JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray(new CastableValue[0]))));
-                JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals())));
+                JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray())));
+                JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals().toMap())));
             }
         } catch (JAISBaLExecutionException | StringParseException throwable) {
             JAISBaL.getOut().println(System.lineSeparator() + System.lineSeparator() + PlasmaStringUtil.indent(20, "-"));
-            JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray(new CastableValue[0]))));
-            JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals())));
+            JAISBaL.getOut().println("Stack: " + FunctionContext.valueToString(new CastableValue(this.getStack().toArray())));
+            JAISBaL.getOut().println("Locals: " + FunctionContext.valueToString(new CastableValue(this.getLocals().toMap())));
             throw throwable;
         }
     }
@@ -569,9 +647,48 @@ public class FunctionContext extends PlasmaObject {
         return this.run(this.parent);
     }
 
-    public State run(Stack<CastableValue> parent) throws JAISBaLExecutionException {
+    //Runs this call frame, then every tail call made from it in the same frame instead of nesting a new one
+    public State runCall(ValueStack parent) throws JAISBaLExecutionException {
+        State state = this.run(parent);
+        while (this.tailCall != null) {
+            Function function = this.tailCall;
+            ValueStack arguments = this.stack;
+            if (this.spare == null) {
+                this.spare = new ValueStack();
+            }
+            //The callee takes its arguments from the old stack and runs on the spare one, then the two swap on the next tail call
+            this.stack = this.spare;
+            this.stack.clear();
+            this.spare = arguments;
+            this.tailCall = null;
+            this.function = function;
+            this.parameters = function.getParameters();
+            this.instructions = function.getInstructions();
+            this.decoded = function.getDecodedInstructions();
+            this.blocks = function.getBlockTable();
+            this.program = function.getProgram();
+            this.locals.clear();
+            this.discard.clear();
+            this.parent = this.discard;
+            this.current = 0;
+            this.currentArg = null;
+            state = this.run(arguments);
+        }
+        return state;
+    }
+
+    //Whether the instruction being executed is a call that can reuse this frame, see Function#markTailCalls
+    public boolean isTailCall() {
+        return this.call && this.current > 0 && this.current <= this.decoded.length && this.decoded[this.current - 1].isTail();
+    }
+
+    public void setTailCall(Function tailCall) {
+        this.tailCall = tailCall;
+    }
+
+    public State run(ValueStack parent) throws JAISBaLExecutionException {
         this.accept(parent);
-        return FunctionContext.run(this);
+        return FunctionContext.getEngine().run(this);
     }
 
     public String getCurrentInstruction() {
@@ -585,6 +702,13 @@ public class FunctionContext extends PlasmaObject {
         return s;
     }
 
+    public DecodedInstruction getCurrentDecodedAndStep() {
+        this.validateCurrent();
+        DecodedInstruction instruction = this.decoded[this.current];
+        this.setCurrent(this.getCurrent() + 1);
+        return instruction;
+    }
+
     public boolean currentExists() {
         return this.getCurrent() < this.instructions.size();
     }
@@ -602,11 +726,25 @@ public class FunctionContext extends PlasmaObject {
         }
     }
 
+    //The decoded instruction being executed, or null if the current argument didn't come from one
+    public DecodedInstruction getCurrentDecoded() {
+        if (this.decoded != null && this.current > 0 && this.current <= this.decoded.length) {
+            DecodedInstruction instruction = this.decoded[this.current - 1];
+            return instruction.isValue(this.currentArg) ? instruction : null;
+        } else {
+            return null;
+        }
+    }
+
     public CastableValue[] getCurrentArg() {
         return this.currentArg;
     }
 
-    public void accept(Stack<CastableValue> parent) throws JAISBaLExecutionException {
+    public void setCurrentArg(CastableValue[] currentArg) {
+        this.currentArg = currentArg;
+    }
+
+    public void accept(ValueStack parent) throws JAISBaLExecutionException {
         if (this.getParameters().size() == 0 || (this.getParameters().size() == this.getParameters().stream().filter(Type::isImplicit).count())) {
             return;
         }
@@ -630,7 +768,7 @@ public class FunctionContext extends PlasmaObject {
         this.parent = parent;
     }
 
-    public Stack<CastableValue> getParentStack() {
+    public ValueStack getParentStack() {
         return this.parent;
     }
 
@@ -647,11 +785,11 @@ public class FunctionContext extends PlasmaObject {
         return this.function;
     }
 
-    public Stack<CastableValue> getStack() {
+    public ValueStack getStack() {
         return this.stack;
     }
 
-    public Map<Long, CastableValue> getLocals() {
+    public Locals getLocals() {
         return this.locals;
     }
 
@@ -659,6 +797,14 @@ public class FunctionContext extends PlasmaObject {
         return this.instructions;
     }
 
+    public DecodedInstruction[] getDecodedInstructions() {
+        return this.decoded;
+    }
+
+    public BlockTable getBlockTable() {
+        return this.blocks;
+    }
+
     public List<Type> getParameters() {
         return this.parameters;
     }
@@ -0,0 +1,271 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Locals;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ArrayInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ConditionalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.FundamentalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.MathematicalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.StackInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ConstantInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.NumberUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
+import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class Superinstruction extends PlasmaObject {
+    private static Map<Instruction, BinaryOperator<BigDecimal>> numberOperations;
+    private static Map<Instruction, IntPredicate> skips;
+    private static Set<Instruction> pushes;
+    private static Set<Instruction> foldable;
+
+    private Instruction[] parts;
+    private DangerousFunction<FunctionContext, State> action;
+
+    //The action returns null when its operands don't fit, in which case the parts are executed normally
+    public Superinstruction(Instruction[] parts, DangerousFunction<FunctionContext, State> action) {
+        this.parts = parts;
+        this.action = action;
+    }
+
+    public static BinaryOperator<BigDecimal> getNumberOperation(Instruction instruction) {
+        if (Superinstruction.numberOperations == null) {
+            Map<Instruction, BinaryOperator<BigDecimal>> operations = new HashMap<>();
+            operations.put(MathematicalInstructions.Operations.ADD, NumberUtility::add);
+            operations.put(MathematicalInstructions.Operations.SUBTRACT, NumberUtility::subtract);
+            operations.put(MathematicalInstructions.Operations.MULTIPLY, NumberUtility::multiply);
+            Superinstruction.numberOperations = operations;
+        }
+        return Superinstruction.numberOperations.get(instruction);
+    }
+
+    //The comparison results for which each skip instruction skips
+    public static IntPredicate getSkip(Instruction instruction) {
+        if (Superinstruction.skips == null) {
+            Map<Instruction, IntPredicate> skips = new HashMap<>();
+            skips.put(ConditionalInstructions.EQUAL, c -> c == 0);
+            skips.put(ConditionalInstructions.NOT_EQUAL, c -> c != 0);
+            skips.put(ConditionalInstructions.GREATER, c -> !(c > 0));
+            skips.put(ConditionalInstructions.LESS, c -> !(c < 0));
+            skips.put(ConditionalInstructions.GREATER_EQUAL, c -> !(c >= 0));
+            skips.put(ConditionalInstructions.LESS_EQUAL, c -> !(c <= 0));
+            Superinstruction.skips = skips;
+        }
+        return Superinstruction.skips.get(instruction);
+    }
+
+    //Instructions that push a value that doesn't depend on anything else
+    public static boolean isPush(Instruction instruction) {
+        if (Superinstruction.pushes == null) {
+            Superinstruction.pushes = new HashSet<>(Arrays.asList(StackInstructions.Manipulators.PUSH_NUMBER, StackInstructions.Manipulators.PUSH_TERMINATED, StackInstructions.Manipulators.PUSH_NEW_LINE,
+                    StackInstructions.Manipulators.PUSH_SPACE, StackInstructions.Manipulators.PUSH_TAB, StackInstructions.Manipulators.PUSH_1_CHAR, StackInstructions.Manipulators.PUSH_2_CHAR,
+                    StackInstructions.Manipulators.PUSH_3_CHAR, StackInstructions.Manipulators.PUSH_4_CHAR, StackInstructions.Manipulators.PUSH_5_CHAR, StackInstructions.Manipulators.PUSH_6_CHAR,
+                    ConditionalInstructions.PUSH_TRUTHY, ConditionalInstructions.PUSH_FALSEY, FundamentalInstructions.AUX_CONSTANT));
+        }
+        return instruction instanceof ConstantInstruction || Superinstruction.pushes.contains(instruction);
+    }
+
+    //Instructions that only work on the values on top of the stack, and always compute the same results from the same values
+    public static boolean isFoldable(Instruction instruction) {
+        if (Superinstruction.foldable == null) {
+            Set<Instruction> foldable = new HashSet<>();
+            foldable.addAll(Arrays.asList(StackInstructions.Manipulators.POP, StackInstructions.Manipulators.SWAP, StackInstructions.Manipulators.DUPLICATE, StackInstructions.Manipulators.TRIPLICATE));
+            foldable.addAll(Arrays.asList(MathematicalInstructions.Operations.ADD, MathematicalInstructions.Operations.SUBTRACT, MathematicalInstructions.Operations.MULTIPLY,
+                    MathematicalInstructions.Operations.DIVIDE, MathematicalInstructions.Operations.INCREMENT, MathematicalInstructions.Operations.DECREMENT, MathematicalInstructions.Operations.POW,
+                    MathematicalInstructions.Operations.MODULO, MathematicalInstructions.Operations.SQRT, MathematicalInstructions.Operations.ABSOLUTE_VALUE, MathematicalInstructions.Operations.FLOOR,
+                    MathematicalInstructions.Operations.CEIL, MathematicalInstructions.Operations.ROUND, MathematicalInstructions.Functions.INVERSE, MathematicalInstructions.Functions.SIGNUM,
+                    MathematicalInstructions.Functions.GREATEST_COMMON_FACTOR, MathematicalInstructions.Functions.MAX, MathematicalInstructions.Functions.MIN));
+            foldable.addAll(Arrays.asList(ConditionalInstructions.NEGATE, ConditionalInstructions.COMPARE, ConditionalInstructions.PUSH_EQUAL, ConditionalInstructions.PUSH_NOT_EQUAL,
+                    ConditionalInstructions.PUSH_GREATER, ConditionalInstructions.PUSH_LESS, ConditionalInstructions.PUSH_GREATER_EQUAL, ConditionalInstructions.PUSH_LESS_EQUAL));
+            foldable.addAll(Arrays.asList(ArrayInstructions.ARRAY_LENGTH, ArrayInstructions.CONCAT, ArrayInstructions.UPPERCASE, ArrayInstructions.LOWERCASE, ArrayInstructions.SWAPCASE));
+            Superinstruction.foldable = foldable;
+        }
+        return Superinstruction.isPush(instruction) || Superinstruction.foldable.contains(instruction);
+    }
+
+    //Evaluates runs of constant pushes and the foldable instructions applied to them, so that they push their results directly
+    public static void fold(DecodedInstruction[] code, BlockTable blocks, Program program) throws JAISBaLExecutionException {
+        FunctionContext scratch = new FunctionContext(new Function("fold", "", new ArrayList<>(), false, false), new ArrayList<>(), Collections.emptyList(), code, blocks, new ValueStack(), new ValueStack(), new Locals(), program);
+        int i = 0;
+        while (i < code.length) {
+            Superinstruction folded = code[i].getFused() == null && !code[i].isDead() ? Superinstruction.constant(scratch, code, i) : code[i].getFused();
+            code[i].setFused(folded);
+            i += folded == null ? 1 : folded.length();
+        }
+    }
+
+    private static Superinstruction constant(FunctionContext scratch, DecodedInstruction[] code, int start) {
+        ValueStack stack = scratch.getStack();
+        stack.clear();
+        boolean computed = false;
+        CastableValue[] values = null;
+        int end = start;
+        for (int i = start; i < code.length && !code[i].isDead() && Superinstruction.isFoldable(code[i].getInstruction()); i++) {
+            Instruction entry = code[i].getInstruction();
+            try {
+                scratch.setCurrent(i + 1);
+                scratch.setCurrentArg(code[i].getValue());
+                if (entry.getAction().apply(scratch) != State.NORMAL) {
+                    break;
+                }
+            } catch (Throwable ignore) {
+                //Also fails when it runs, leave it to fail there
+                break;
+            }
+            computed |= !Superinstruction.isPush(entry);
+            if (computed && Stream.of(stack.toArray()).allMatch(v -> ValueUtility.raw(v) instanceof BigDecimal || ValueUtility.raw(v) instanceof String)) {
+                values = stack.toArray();
+                end = i + 1;
+            }
+        }
+
+        if (values == null) {
+            return null;
+        }
+        Instruction[] parts = new Instruction[end - start];
+        for (int i = start; i < end; i++) {
+            parts[i - start] = code[i].getInstruction();
+        }
+        CastableValue[] result = values;
+        return new Superinstruction(parts, f -> {
+            f.getStack().pushAll(result);
+            return State.NORMAL;
+        });
+    }
+
+    public static void fuse(DecodedInstruction[] code) {
+        int i = 0;
+        while (i < code.length) {
+            Superinstruction fused = code[i].getFused() == null ? Superinstruction.match(code, i) : code[i].getFused();
+            code[i].setFused(fused);
+            i += fused == null ? 1 : fused.length();
+        }
+    }
+
+    private static Superinstruction match(DecodedInstruction[] code, int i) {
+        Instruction a = Superinstruction.instruction(code, i);
+        Instruction b = Superinstruction.instruction(code, i + 1);
+        Instruction c = Superinstruction.instruction(code, i + 2);
+        if (a == StackInstructions.Manipulators.LOAD && b == StackInstructions.Manipulators.LOAD && Superinstruction.getNumberOperation(c) != null && code[i].getNumber() != null && code[i + 1].getNumber() != null) {
+            return Superinstruction.loadLoadOperation(code[i].getNumber().longValue(), code[i + 1].getNumber().longValue(), Superinstruction.getNumberOperation(c), a, b, c);
+        } else if (a == StackInstructions.Manipulators.PUSH_NUMBER && Superinstruction.getNumberOperation(b) != null && code[i].getNumber() != null) {
+            return Superinstruction.pushOperation(code[i].getNumber(), Superinstruction.getNumberOperation(b), a, b);
+        } else if (a == StackInstructions.Manipulators.PUSH_NUMBER && Superinstruction.getSkip(b) != null && code[i].getNumber() != null) {
+            return Superinstruction.pushSkip(CastableValue.of(code[i].getNumber()), Superinstruction.getSkip(b), a, b);
+        } else if (a == StackInstructions.Manipulators.SWAP && b == StackInstructions.Manipulators.POP) {
+            return new Superinstruction(new Instruction[]{a, b}, f -> {
+                ValueStack stack = f.getStack();
+                if (stack.size() < 2) {
+                    return null;
+                }
+                stack.remove(stack.size() - 2);
+                return State.NORMAL;
+            });
+        } else {
+            return null;
+        }
+    }
+
+    private static Superinstruction pushOperation(BigDecimal number, BinaryOperator<BigDecimal> operation, Instruction... parts) {
+        return new Superinstruction(parts, f -> {
+            ValueStack stack = f.getStack();
+            BigDecimal top = stack.isEmpty() ? null : Superinstruction.number(stack.peek());
+            if (top == null) {
+                return null;
+            }
+            stack.pop();
+            stack.push(CastableValue.of(operation.apply(number, top)));
+            return State.NORMAL;
+        });
+    }
+
+    private static Superinstruction loadLoadOperation(long first, long second, BinaryOperator<BigDecimal> operation, Instruction... parts) {
+        return new Superinstruction(parts, f -> {
+            BigDecimal a = Superinstruction.number(f.getLocals().get(first));
+            BigDecimal b = Superinstruction.number(f.getLocals().get(second));
+            if (a == null || b == null) {
+                return null;
+            }
+            f.getStack().push(CastableValue.of(operation.apply(b, a)));
+            return State.NORMAL;
+        });
+    }
+
+    private static Superinstruction pushSkip(CastableValue number, IntPredicate skip, Instruction... parts) {
+        return new Superinstruction(parts, f -> {
+            ValueStack stack = f.getStack();
+            if (stack.isEmpty() || Superinstruction.number(stack.peek()) == null) {
+                return null;
+            }
+            return skip.test(InstructionUtility.compare(number, stack.pop())) ? State.JUMPED : State.NORMAL;
+        });
+    }
+
+    private static BigDecimal number(CastableValue value) {
+        Object object = value == null ? null : value.getValue().orElse(null);
+        return object instanceof BigDecimal ? (BigDecimal) object : null;
+    }
+
+    private static Instruction instruction(DecodedInstruction[] code, int i) {
+        return i < code.length ? code[i].getInstruction() : null;
+    }
+
+    public int length() {
+        return this.parts.length;
+    }
+
+    public String getName() {
+        return Stream.of(this.parts).map(Instruction::getMainAlias).collect(Collectors.joining("+"));
+    }
+
+    //Expects the context to be positioned after the first part, and leaves it positioned after the last part (or the instruction the last part skipped)
+    public State apply(FunctionContext context) throws Throwable {
+        State state = this.action.apply(context);
+        if (state != null) {
+            context.setCurrent(context.getCurrent() + this.parts.length - 1 + (state == State.JUMPED ? 1 : 0));
+        }
+        return state;
+    }
+
+}
@@ -25,6 +25,7 @@ package com.gmail.socraticphoenix.jaisbal.program.instructions;
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.StackEffect;
 import com.gmail.socraticphoenix.plasma.string.CharacterStream;
 
 import java.util.ArrayList;
@@ -34,19 +35,19 @@ public class Instruction {
     public static final Instruction DUMMY = new Instruction(f -> State.NORMAL, -1, "", "", "");
     private int dangerLevel;
     private DangerousFunction<FunctionContext, State> action;
+    private int opcode;
     private DangerousFunction<CharacterStream, String> valueReader;
     private String documentation;
     private String description;
     private List<String> aliases;
     private char id;
     private double group;
+    private StackEffect stackEffect;
 
     public Instruction(DangerousFunction<FunctionContext, State> action, DangerousFunction<CharacterStream, String> valueReader, double group, int dangerLevel, String explanation, String documentation, String... aliases) {
         this.group = group;
-        this.action = f -> {
-            InstructionRegistry.getMonitor().monitor(this);
-            return action.apply(f);
-        };
+        this.action = action;
+        this.opcode = -1;
         this.valueReader = valueReader;
         this.aliases = new ArrayList<>();
         this.description = explanation;
@@ -97,6 +98,7 @@ public class Instruction {
     public void assignId(char c) {
         this.id = c;
         this.aliases.add(String.valueOf(c));
+        InstructionRegistry.index(this);
     }
 
     public String getDescription() {
@@ -111,10 +113,27 @@ public class Instruction {
         return this.action;
     }
 
+    public int getOpcode() {
+        return this.opcode;
+    }
+
+    public void setOpcode(int opcode) {
+        this.opcode = opcode;
+    }
+
     public DangerousFunction<CharacterStream, String> getValueReader() {
         return this.valueReader;
     }
 
+    //What the instruction pops and pushes, or null if that isn't fixed, see Function#markCheckedCode
+    public StackEffect getStackEffect() {
+        return this.stackEffect;
+    }
+
+    public void setStackEffect(StackEffect stackEffect) {
+        this.stackEffect = stackEffect;
+    }
+
     public boolean isName(String instruction) {
         return this.aliases.contains(instruction);
     }
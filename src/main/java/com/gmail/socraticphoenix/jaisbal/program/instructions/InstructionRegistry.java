@@ -25,6 +25,9 @@ package com.gmail.socraticphoenix.jaisbal.program.instructions;
 import com.gmail.socraticphoenix.jaisbal.JAISBaL;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.SecurityMonitor;
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.constants.StandardConstants;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ArrayInstructions;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ConditionalInstructions;
@@ -36,17 +39,27 @@ import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.Misce
 import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.StackInstructions;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ConstantInstruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.StackEffect;
+import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
+import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 import com.gmail.socraticphoenix.plasma.string.PlasmaStringUtil;
 import com.gmail.socraticphoenix.plasma.string.TableFormat;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class InstructionRegistry {
     private static List<Instruction> accessibleInstructions;
+    private static Instruction[] idTable;
+    private static Map<String, Instruction> aliasTable;
+    private static List<DangerousFunction<FunctionContext, State>> handlers;
 
     private static List<Instruction> instructions;
     private static List<Instruction> supplementaryInstructions;
@@ -329,6 +342,89 @@ public class InstructionRegistry {
 
 
 
+        //-----------------------------------------------------------------------
+        //Stack effects, version 1
+        //-----------------------------------------------------------------------
+
+        //Pushes
+        se(StackInstructions.Manipulators.PUSH_NUMBER, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_TERMINATED, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_1_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_2_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_3_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_4_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_5_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_6_CHAR, StackEffect.argument());
+        se(StackInstructions.Manipulators.PUSH_NEW_LINE, StackEffect.of(Collections.emptyList(), Type.STRING));
+        se(StackInstructions.Manipulators.PUSH_SPACE, StackEffect.of(Collections.emptyList(), Type.STRING));
+        se(StackInstructions.Manipulators.PUSH_TAB, StackEffect.of(Collections.emptyList(), Type.STRING));
+        se(ConditionalInstructions.PUSH_TRUTHY, StackEffect.of(Collections.emptyList(), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_FALSEY, StackEffect.of(Collections.emptyList(), Type.NUMBER));
+
+        //Stack manipulation
+        se(StackInstructions.Manipulators.POP, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(StackInstructions.Manipulators.SWAP, new StackEffect(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), (in, arg) -> Arrays.asList(in.get(0), in.get(1))));
+        se(StackInstructions.Manipulators.DUPLICATE, new StackEffect(PlasmaListUtil.buildList(Type.WILDCARD), (in, arg) -> Arrays.asList(in.get(0), in.get(0))));
+        se(StackInstructions.Manipulators.TRIPLICATE, new StackEffect(PlasmaListUtil.buildList(Type.WILDCARD), (in, arg) -> Arrays.asList(in.get(0), in.get(0), in.get(0))));
+        se(StackInstructions.Manipulators.STORE, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(StackInstructions.Manipulators.LOAD, StackEffect.of(Collections.emptyList(), (Type) null));
+        se(StackInstructions.Outputters.POP_OUTPUT, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(StackInstructions.Outputters.POP_OUTPUT_NEWLINE, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(ControlFlowInstructions.SUPER_PUSH, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+
+        //Conditionals
+        se(ConditionalInstructions.EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.NOT_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.GREATER, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.LESS, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.GREATER_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.LESS_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD)));
+        se(ConditionalInstructions.IF_TRUTHY, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(ConditionalInstructions.IF_FALSEY, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD)));
+        se(ConditionalInstructions.PUSH_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_NOT_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_GREATER, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_LESS, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_GREATER_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.PUSH_LESS_EQUAL, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.COMPARE, StackEffect.of(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), Type.NUMBER));
+        se(ConditionalInstructions.NEGATE, new StackEffect(PlasmaListUtil.buildList(Type.WILDCARD), (in, arg) -> Arrays.asList(in.get(0))));
+
+        //Math
+        se(MathematicalInstructions.Operations.ADD, StackEffect.numeric(2));
+        se(MathematicalInstructions.Operations.SUBTRACT, StackEffect.numeric(2));
+        se(MathematicalInstructions.Operations.MULTIPLY, StackEffect.numeric(2));
+        se(MathematicalInstructions.Operations.DIVIDE, StackEffect.numeric(2));
+        se(MathematicalInstructions.Operations.INCREMENT, StackEffect.numeric(1));
+        se(MathematicalInstructions.Operations.DECREMENT, StackEffect.numeric(1));
+        se(MathematicalInstructions.Operations.POW, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.MODULO, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.SQRT, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.ABSOLUTE_VALUE, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.FLOOR, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.CEIL, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Operations.ROUND, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.FACTORIAL, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.INVERSE, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.SIGNUM, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.GREATEST_COMMON_FACTOR, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.MAX, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), Type.NUMBER));
+        se(MathematicalInstructions.Functions.MIN, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), Type.NUMBER));
+
+        //Strings
+        se(ArrayInstructions.CONCAT, new StackEffect(PlasmaListUtil.buildList(Type.WILDCARD, Type.WILDCARD), (in, arg) -> Collections.singletonList(in.get(0) == Type.STRING && in.get(1) == Type.STRING ? Type.STRING : null)));
+        se(ArrayInstructions.UPPERCASE, StackEffect.of(PlasmaListUtil.buildList(Type.STRING), Type.STRING));
+        se(ArrayInstructions.LOWERCASE, StackEffect.of(PlasmaListUtil.buildList(Type.STRING), Type.STRING));
+        se(ArrayInstructions.SWAPCASE, StackEffect.of(PlasmaListUtil.buildList(Type.STRING), Type.STRING));
+        se(ArrayInstructions.CODEPOINT_TO_CHAR, StackEffect.of(PlasmaListUtil.buildList(Type.NUMBER), Type.STRING));
+        se(ArrayInstructions.CHAR_TO_CODEPOINT, StackEffect.of(PlasmaListUtil.buildList(Type.STRING), Type.NUMBER));
+
+        //-----------------------------------------------------------------------
+        //End Of Stack effects, version 1
+        //-----------------------------------------------------------------------
+
+
+
         //-----------------------------------------------------------------------
         //Constants, version 1
         //-----------------------------------------------------------------------
@@ -373,6 +469,61 @@ public class InstructionRegistry {
         //-----------------------------------------------------------------------
         //End Of Constants, version 1
         //-----------------------------------------------------------------------
+
+        InstructionRegistry.freeze();
+    }
+
+    public static void freeze() {
+        InstructionRegistry.accessibleInstructions = new ArrayList<>();
+        InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getStandardInstructions());
+        InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getSupplementaryInstructions());
+        InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getConstants());
+        InstructionRegistry.idTable = new Instruction[Character.MAX_VALUE + 1];
+        InstructionRegistry.aliasTable = new HashMap<>();
+        InstructionRegistry.accessibleInstructions.forEach(InstructionRegistry::index);
+
+        List<Instruction> dispatchable = new ArrayList<>();
+        dispatchable.addAll(InstructionRegistry.accessibleInstructions);
+        dispatchable.addAll(InstructionRegistry.getAuxiliaryInstructions());
+        dispatchable.forEach(i -> i.setOpcode(-1));
+        Instruction[] builtIn = Opcodes.builtIn();
+        for (int i = 0; i < builtIn.length; i++) {
+            builtIn[i].setOpcode(i);
+        }
+        List<DangerousFunction<FunctionContext, State>> handlers = new ArrayList<>();
+        for (Instruction instruction : builtIn) {
+            handlers.add(instruction.getAction());
+        }
+        for (Instruction instruction : dispatchable) {
+            if (instruction.getOpcode() == -1) {
+                instruction.setOpcode(handlers.size());
+                handlers.add(instruction.getAction());
+            }
+        }
+        InstructionRegistry.handlers = handlers;
+    }
+
+    public static DangerousFunction<FunctionContext, State> getHandler(int opcode) {
+        return InstructionRegistry.handlers.get(opcode);
+    }
+
+    public static void index(Instruction instruction) {
+        if (InstructionRegistry.idTable != null) {
+            if (instruction.getId() != '\0' && InstructionRegistry.idTable[instruction.getId()] == null) {
+                InstructionRegistry.idTable[instruction.getId()] = instruction;
+            }
+            instruction.getAliases().forEach(alias -> InstructionRegistry.aliasTable.putIfAbsent(alias, instruction));
+        }
+    }
+
+    public static Optional<Instruction> getInstruction(String name) {
+        InstructionRegistry.getAccessibleInstructions();
+        return Optional.ofNullable(InstructionRegistry.aliasTable.get(name));
+    }
+
+    public static Optional<Instruction> getInstruction(char id) {
+        InstructionRegistry.getAccessibleInstructions();
+        return Optional.ofNullable(InstructionRegistry.idTable[id]);
     }
 
     public static SecurityMonitor getMonitor() {
@@ -411,6 +562,10 @@ public class InstructionRegistry {
         InstructionRegistry.register(instruction);
     }
 
+    public static void se(Instruction instruction, StackEffect effect) {
+        instruction.setStackEffect(effect);
+    }
+
     public static void rsi(Instruction instruction) {
         InstructionRegistry.registerSupplementaryInstruction(instruction);
     }
@@ -575,10 +730,7 @@ public class InstructionRegistry {
 
     public static List<Instruction> getAccessibleInstructions() {
         if(InstructionRegistry.accessibleInstructions == null) {
-            InstructionRegistry.accessibleInstructions = new ArrayList<>();
-            InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getStandardInstructions());
-            InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getSupplementaryInstructions());
-            InstructionRegistry.accessibleInstructions.addAll(InstructionRegistry.getConstants());
+            InstructionRegistry.freeze();
         }
         return InstructionRegistry.accessibleInstructions;
     }
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions;
+
+import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ConditionalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.ControlFlowInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.MathematicalInstructions;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.StackInstructions;
+
+public interface Opcodes {
+    //Built in opcodes are dispatched inline, every other registered instruction gets a dense opcode after these, see InstructionRegistry#freeze
+    int END = 0;
+    int PUSH_NUMBER = 1;
+    int PUSH_TERMINATED = 2;
+    int POP = 3;
+    int SWAP = 4;
+    int DUPLICATE = 5;
+    int STORE = 6;
+    int LOAD = 7;
+    int ADD = 8;
+    int SUBTRACT = 9;
+    int MULTIPLY = 10;
+    int DIVIDE = 11;
+    int INCREMENT = 12;
+    int DECREMENT = 13;
+    int EQUAL = 14;
+    int NOT_EQUAL = 15;
+    int GREATER = 16;
+    int LESS = 17;
+    int GREATER_EQUAL = 18;
+    int LESS_EQUAL = 19;
+    int IF_TRUTHY = 20;
+    int IF_FALSEY = 21;
+    int RELATIVE_JUMP = 22;
+    int INDEX_JUMP = 23;
+
+    static Instruction[] builtIn() {
+        return new Instruction[]{
+                ControlFlowInstructions.END, StackInstructions.Manipulators.PUSH_NUMBER, StackInstructions.Manipulators.PUSH_TERMINATED,
+                StackInstructions.Manipulators.POP, StackInstructions.Manipulators.SWAP, StackInstructions.Manipulators.DUPLICATE, StackInstructions.Manipulators.STORE, StackInstructions.Manipulators.LOAD,
+                MathematicalInstructions.Operations.ADD, MathematicalInstructions.Operations.SUBTRACT, MathematicalInstructions.Operations.MULTIPLY, MathematicalInstructions.Operations.DIVIDE,
+                MathematicalInstructions.Operations.INCREMENT, MathematicalInstructions.Operations.DECREMENT,
+                ConditionalInstructions.EQUAL, ConditionalInstructions.NOT_EQUAL, ConditionalInstructions.GREATER, ConditionalInstructions.LESS, ConditionalInstructions.GREATER_EQUAL, ConditionalInstructions.LESS_EQUAL,
+                ConditionalInstructions.IF_TRUTHY, ConditionalInstructions.IF_FALSEY,
+                ControlFlowInstructions.RELATIVE_JUMP, ControlFlowInstructions.INDEX_JUMP
+        };
+    }
+
+    //Each built in case calls the same method the instruction's own action does, so the JIT sees one direct call per opcode
+    static State dispatch(Instruction instruction, FunctionContext f) throws Throwable {
+        switch (instruction.getOpcode()) {
+            case Opcodes.END:
+                return ControlFlowInstructions.end(f);
+            case Opcodes.PUSH_NUMBER:
+            case Opcodes.PUSH_TERMINATED:
+                return StackInstructions.Manipulators.pushArgument(f);
+            case Opcodes.POP:
+                return StackInstructions.Manipulators.pop(f);
+            case Opcodes.SWAP:
+                return StackInstructions.Manipulators.swap(f);
+            case Opcodes.DUPLICATE:
+                return StackInstructions.Manipulators.duplicate(f);
+            case Opcodes.STORE:
+                return StackInstructions.Manipulators.store(f);
+            case Opcodes.LOAD:
+                return StackInstructions.Manipulators.load(f);
+            case Opcodes.ADD:
+                return MathematicalInstructions.Operations.add(f);
+            case Opcodes.SUBTRACT:
+                return MathematicalInstructions.Operations.subtract(f);
+            case Opcodes.MULTIPLY:
+                return MathematicalInstructions.Operations.multiply(f);
+            case Opcodes.DIVIDE:
+                return MathematicalInstructions.Operations.divide(f);
+            case Opcodes.INCREMENT:
+                return MathematicalInstructions.Operations.increment(f);
+            case Opcodes.DECREMENT:
+                return MathematicalInstructions.Operations.decrement(f);
+            case Opcodes.EQUAL:
+                return ConditionalInstructions.equal(f);
+            case Opcodes.NOT_EQUAL:
+                return ConditionalInstructions.notEqual(f);
+            case Opcodes.GREATER:
+                return ConditionalInstructions.greater(f);
+            case Opcodes.LESS:
+                return ConditionalInstructions.less(f);
+            case Opcodes.GREATER_EQUAL:
+                return ConditionalInstructions.greaterEqual(f);
+            case Opcodes.LESS_EQUAL:
+                return ConditionalInstructions.lessEqual(f);
+            case Opcodes.IF_TRUTHY:
+                return ConditionalInstructions.ifTruthy(f);
+            case Opcodes.IF_FALSEY:
+                return ConditionalInstructions.ifFalsey(f);
+            case Opcodes.RELATIVE_JUMP:
+                return ControlFlowInstructions.relativeJump(f);
+            case Opcodes.INDEX_JUMP:
+                return ControlFlowInstructions.indexJump(f);
+            case -1:
+                return instruction.getAction().apply(f);
+            default:
+                //Every other instruction still goes through its handler
+                return InstructionRegistry.getHandler(instruction.getOpcode()).apply(f);
+        }
+    }
+
+}
@@ -28,7 +28,9 @@ import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.PackedArray;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization.VectorizedDyadString;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization.VectorizedMonad;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization.VectorizedMonadString;
@@ -46,7 +48,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     Instruction ARRAY_CREATE = new Instruction(f -> {
         CastableValue index = f.getCurrentArgEasy();
         Type.NUMBER.checkMatches(index);
-            CastableValue[] array = new CastableValue[index.getValueAs(BigDecimal.class).get().intValue()];
+            CastableValue[] array = new CastableValue[ValueUtility.number(index).intValue()];
             f.getStack().push(CastableValue.of(array));
         return State.NORMAL;
     }, InstructionUtility.number(), 6.01, "create and push new array with length ${arg}", "Creates a new array with the given length. This instruction takes one argument, a number (see pushnum)", "newarray");
@@ -54,7 +56,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         Program.checkUnderflow(1, f);
         CastableValue index = f.getStack().pop();
         Type.NUMBER.checkMatches(index);
-            CastableValue[] array = new CastableValue[index.getValueAs(BigDecimal.class).get().intValue()];
+            CastableValue[] array = new CastableValue[ValueUtility.number(index).intValue()];
             f.getStack().push(CastableValue.of(array));
 
         return State.NORMAL;
@@ -62,7 +64,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     Instruction ARRAY_LENGTH = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
         CastableValue value = f.getStack().pop();
         f.getStack().push(value);
-        f.getStack().push(CastableValue.of(new BigDecimal(value.getValueAs(CastableValue[].class).get().length)));
+        f.getStack().push(CastableValue.of(new BigDecimal(ValueUtility.length(value))));
         return State.NORMAL;
     })), 6.01, "push the length of the array onto the stack", "Pushes the length of array a onto the stack. This instruction does not pop off the array. This instruction fails if a is not an array", "arraylength", "alength", "arrlength");
 
@@ -75,7 +77,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         Type.GENERAL_ARRAY.checkMatches(array);
         try {
             f.getStack().push(array);
-            f.getStack().push(array.getValueAs(CastableValue[].class).get()[index.getValueAs(BigDecimal.class).get().intValue()]);
+            f.getStack().push(ValueUtility.array(array)[ValueUtility.number(index).intValue()]);
         } catch (ArithmeticException | IndexOutOfBoundsException e) {
             throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(index) + " is not an integer index, or is too large or small", e);
         }
@@ -89,7 +91,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         Type.NUMBER.checkMatches(index);
         Type.GENERAL_ARRAY.checkMatches(array);
         try {
-            array.getValueAs(CastableValue[].class).get()[index.getValueAs(BigDecimal.class).get().intValue()] = value;
+            ValueUtility.array(array)[ValueUtility.number(index).intValue()] = value;
             f.getStack().push(array);
         } catch (ArithmeticException | IndexOutOfBoundsException e) {
             throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(index) + " is not an integer index, or is too large or small", e);
@@ -105,7 +107,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         Type.GENERAL_ARRAY.checkMatches(array);
         try {
             f.getStack().push(array);
-            f.getStack().push(array.getValueAs(CastableValue[].class).get()[index.getValueAs(BigDecimal.class).get().intValue()]);
+            f.getStack().push(ValueUtility.array(array)[ValueUtility.number(index).intValue()]);
         } catch (ArithmeticException | IndexOutOfBoundsException e) {
             throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(index) + " is not an integer index, or is too large or small", e);
         }
@@ -119,7 +121,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         Type.NUMBER.checkMatches(index);
         Type.GENERAL_ARRAY.checkMatches(array);
         try {
-            array.getValueAs(CastableValue[].class).get()[index.getValueAs(BigDecimal.class).get().intValue()] = value;
+            ValueUtility.array(array)[ValueUtility.number(index).intValue()] = value;
             f.getStack().push(array);
         } catch (ArithmeticException | IndexOutOfBoundsException e) {
             throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(index) + " is not an integer index, or is too large or small", e);
@@ -129,19 +131,19 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
 
     //List operations, sub group .03
     Instruction ARRAY_SORT = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue[] array = ValueUtility.array(f.getStack().pop());
         Arrays.sort(array, InstructionUtility::compare);
         f.getStack().push(CastableValue.of(array));
         return State.NORMAL;
     })), 6.03, "pop the top value of the stack, sort it, and push it", "Pops the top value off the stack and sorts it from smallest to largest (see compare). This instruction fails if a is not an array", "sort");
     Instruction ARRAY_SORT_REVERSE = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue[] array = ValueUtility.array(f.getStack().pop());
         Arrays.sort(array, (a, b) -> InstructionUtility.compare(b, a));
         f.getStack().push(CastableValue.of(array));
         return State.NORMAL;
     })), 6.03, "pop the top value of the stack, sort it, reverse it, and push it", "Pops the top value off the stack and sorts it from largest to smallest (see compare). This instruction fails if a is not an array", "rsort");
     Instruction ROTATE = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue[] array = ValueUtility.array(f.getStack().pop());
         CastableValue[] newArray = new CastableValue[array.length];
         for (int i = 0; i < array.length; i++) {
             int l = i + 1 >= newArray.length ? i + 1 - newArray.length : i + 1;
@@ -153,8 +155,8 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     Instruction ROTATE_NUMBER = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
         CastableValue num = f.getCurrentArgEasy();
         Type.NUMBER.checkMatches(num);
-        int g = num.getValueAs(BigDecimal.class).get().intValue();
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        int g = ValueUtility.number(num).intValue();
+        CastableValue[] array = ValueUtility.array(f.getStack().pop());
         CastableValue[] newArray = new CastableValue[array.length];
         for (int i = 0; i < array.length; i++) {
             int l = i + g >= newArray.length ? g + 1 - newArray.length : g + 1;
@@ -165,8 +167,8 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     })), 6.03, "rotate the top value of the stack ${arg} time(s) to the right", "Pops a off the stack, and rotates array a to the right, depending on the argument given. Generally, and array of the form [l(n), l(n - 1), l(n - 2)...] will become [l(n + arg), l(n - 1 + arg), l(n - 2 + arg)...], with values at the end of the array wrapping around to the beginning. This instruction fails if a is not an array.", "rotaten");
     Instruction ROTATE_NUMBER_STACK = new Instruction(new VectorizedDyadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.NUMBER, Type.GENERAL_ARRAY), f -> {
         CastableValue num = f.getStack().pop();
-        int g = num.getValueAs(BigDecimal.class).get().intValue();
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        int g = ValueUtility.number(num).intValue();
+        CastableValue[] array = ValueUtility.array(f.getStack().pop());
         CastableValue[] newArray = new CastableValue[array.length];
         for (int i = 0; i < array.length; i++) {
             int l = i + g >= newArray.length ? g + 1 - newArray.length : g + 1;
@@ -177,11 +179,16 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     })), 6.03, "rotate the second value of the stack <top value of stack> times", "Pops a and b off the stack, and rotates array b to the right, a times. Generally, and array of the form [l(n), l(n - 1), l(n - 2)...] will become [;(n + a), l(n - 1 + a), l(n - 2 + a)...], with values at the end of the array wrapping around to the beginning. This instruction fails if a is not an array,", "rotatens");
     Instruction ARRAY_RANGED = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), f -> {
         try {
-            BigInteger a = f.getStack().pop().getValueAs(BigDecimal.class).get().toBigInteger();
-            BigInteger b = f.getStack().pop().getValueAs(BigDecimal.class).get().toBigInteger();
+            BigInteger a = ValueUtility.number(f.getStack().pop()).toBigInteger();
+            BigInteger b = ValueUtility.number(f.getStack().pop()).toBigInteger();
             BigInteger min = PlasmaListUtil.getMinimum(new BigInteger[]{a, b});
             BigInteger max = PlasmaListUtil.getMaximum(new BigInteger[]{a, b});
             int size = max.subtract(min).intValue();
+            PackedArray packed = PackedArray.range(min, size);
+            if (packed != null) {
+                f.getStack().push(CastableValue.of(packed));
+                return State.NORMAL;
+            }
             CastableValue[] array = new CastableValue[size];
             for (int i = 0; i < array.length; i++) {
                 array[i] = CastableValue.of(min);
@@ -195,11 +202,16 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         return State.NORMAL;
     }), 6.03, "push an array containing all numbers in the range of the two numbers on the top of the stack", "Pops a and b off the stack and pushes an array containing the range between them. The range will be 1-incremented from min(a, b) to max(a, b) - 1. ", "range");
     Instruction ARRAY_RANGED_INCLUSIVE = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.NUMBER, Type.NUMBER), f -> {
-            BigInteger a = f.getStack().pop().getValueAs(BigDecimal.class).get().toBigInteger();
-            BigInteger b = f.getStack().pop().getValueAs(BigDecimal.class).get().toBigInteger();
+            BigInteger a = ValueUtility.number(f.getStack().pop()).toBigInteger();
+            BigInteger b = ValueUtility.number(f.getStack().pop()).toBigInteger();
             BigInteger min = PlasmaListUtil.getMinimum(new BigInteger[]{a, b});
             BigInteger max = PlasmaListUtil.getMaximum(new BigInteger[]{a, b});
             int size = max.subtract(min).intValue() + 1;
+            PackedArray packed = PackedArray.range(min, size);
+            if (packed != null) {
+                f.getStack().push(CastableValue.of(packed));
+                return State.NORMAL;
+            }
             CastableValue[] array = new CastableValue[size];
             for (int i = 0; i < array.length; i++) {
                 array[i] = CastableValue.of(min);
@@ -209,44 +221,43 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         return State.NORMAL;
     }), 6.03, "push an array containing all numbers in the range of the two numbers on the top of the stack, inclusively", "Pops a and b off the stack and pushes an array containing the range between them. The range will be 1-incremented from min(a, b) to max(a, b). ", "rangein");
     Instruction SHUFFLE = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
-        f.getStack().push(CastableValue.of(PlasmaRandomUtil.randomize(f.getStack().pop().getValueAs(CastableValue[].class).get())));
+        f.getStack().push(CastableValue.of(PlasmaRandomUtil.randomize(ValueUtility.array(f.getStack().pop()))));
         return State.NORMAL;
     }),  6.03, "randomly shuffles the elements of the top value of the stack", "Pops the top value of the stack, shuffles the values of array a and pushes the result", "shuffle");
 
     //Stack <-> array operations, sub group .04
     Instruction ARRAY_WRAP = new Instruction(f -> {
-        CastableValue[] array = new CastableValue[f.getStack().size()];
-        int ind = array.length - 1;
-        while (!f.getStack().isEmpty()) {
-            array[ind] = f.getStack().pop();
-            ind--;
-        }
-        f.getStack().push(CastableValue.of(array));
+        f.getStack().push(CastableValue.of(f.getStack().pop(f.getStack().size())));
         return State.NORMAL;
     }, 6.04, "take the entire stack and wrap it into an array", "Pops every value of the stack and stores it in an array, in reverse order. This is implemented this way so that subsequent calls to popsplitpush and arrwrap do not modify the stack", "arrwrap");
     Instruction POP_SPLIT_PUSH = new Instruction(f -> {
         Program.checkUnderflow(1, f);
         CastableValue value = f.getStack().pop();
-        if (value.getAsString().isPresent()) {
-            String[] pieces = value.getAsString().get().split("");
-            for (String piece : pieces) {
-                f.getStack().push(CastableValue.of(piece));
+        if (ValueUtility.isString(value)) {
+            String s = ValueUtility.string(value);
+            if (s.isEmpty()) {
+                f.getStack().push(CastableValue.of(s));
+            }
+            for (int i = 0; i < s.length(); i++) {
+                f.getStack().push(PackedArray.character(s.charAt(i)));
             }
-        } else if (value.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] pieces = value.getValueAs(CastableValue[].class).get();
-            for (CastableValue piece : pieces) {
-                f.getStack().push(piece);
+        } else if (ValueUtility.isPacked(value)) {
+            int length = ValueUtility.length(value);
+            for (int i = 0; i < length; i++) {
+                f.getStack().push(ValueUtility.element(value, i));
             }
+        } else if (ValueUtility.isArray(value)) {
+            f.getStack().pushAll(ValueUtility.array(value));
         }
         return State.NORMAL;
     }, 6.04, "take the top value off the stack, split it up, and push each piece", "Pops the top value off the stack, splits it, and pushes each piece onto the stack. If the top value is a string or number, it will be converted to a string, and each character of the string will be pushed. If the top value is an array, the values in the array will be pushed in order", "popsplitpush", "explode");
     Instruction REVERSE = new Instruction(f -> {
         Program.checkUnderflow(1, f);
         CastableValue value = f.getStack().pop();
-        if (value.getAsString().isPresent()) {
-            f.getStack().push(CastableValue.of(PlasmaStringUtil.reverseString(value.getAsString().get())));
+        if (ValueUtility.isString(value)) {
+            f.getStack().push(CastableValue.of(PlasmaStringUtil.reverseString(ValueUtility.string(value))));
         } else {
-            f.getStack().push(CastableValue.of(PlasmaListUtil.reverseList(PlasmaListUtil.buildList(value.getValueAs(CastableValue[].class).get())).toArray(new CastableValue[0])));
+            f.getStack().push(CastableValue.of(PlasmaListUtil.reverseList(PlasmaListUtil.buildList(ValueUtility.array(value))).toArray(new CastableValue[0])));
         }
         return State.NORMAL;
     }, 6.04, "reverse the top value of the stack", "Pops the top value off the stack and reverses it. If the a is a number or string, it will be converted to a string and the order of characters will be reversed. If a is an array, the order of elements will be reversed", "reverse");
@@ -254,11 +265,12 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     //Concatenation, sub group .05
     Instruction JOIN = new Instruction(new VectorizedMonadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
         CastableValue string = f.getCurrentArgEasy();
-        CastableValue[] values = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue values = f.getStack().pop();
+        int length = ValueUtility.length(values);
         StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < values.length; i++) {
-            builder.append(Program.valueToString(values[i]));
-            if(i < values.length - 1) {
+        for (int i = 0; i < length; i++) {
+            builder.append(Program.valueToString(ValueUtility.element(values, i)));
+            if(i < length - 1) {
                 builder.append(Program.valueToString(string));
             }
         }
@@ -267,11 +279,12 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
     })), InstructionUtility.terminated(), 6.05, "join the elements of the top value of the stack with ${arg}", "Pops the top value of the stack, and joins every element of array a with the given argument as glue. This instruction takes one argument, terminated by '}' (see pushterm)", "join");
     Instruction JOIN_STACK = new Instruction(new VectorizedDyadString(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING, Type.GENERAL_ARRAY), f -> {
         CastableValue string = f.getStack().pop();
-        CastableValue[] values = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue values = f.getStack().pop();
+        int length = ValueUtility.length(values);
         StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < values.length; i++) {
-            builder.append(Program.valueToString(values[i]));
-            if(i < values.length - 1) {
+        for (int i = 0; i < length; i++) {
+            builder.append(Program.valueToString(ValueUtility.element(values, i)));
+            if(i < length - 1) {
                 builder.append(Program.valueToString(string));
             }
         }
@@ -312,7 +325,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         CastableValue value = f.getStack().pop();
         Type.STRING.checkMatches(value);
         Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String[] pieces = value.getAsString().get().split(f.getCurrentArgEasy().getAsString().get());
+        String[] pieces = ValueUtility.string(value).split(ValueUtility.string(f.getCurrentArgEasy()));
         CastableValue[] array = new CastableValue[pieces.length];
         for (int i = 0; i < pieces.length; i++) {
             array[i] = CastableValue.of(pieces[i]);
@@ -321,7 +334,7 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         return State.NORMAL;
     }, InstructionUtility.terminated(), 6.06, "split the top value of the stack by ${arg}", "Splits the top value of the stack by the given regex, and pushes the array result. This instruction takes one argument, terminated by '}' (see pushterm). This instruction is only succesful if the top value of the stack is a string or number", "split");
     Instruction SPLIT_STACK = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING, Type.STRING), f -> {
-        String[] pieces = f.getStack().pop().getAsString().get().split(f.getStack().pop().getAsString().get());
+        String[] pieces = ValueUtility.string(f.getStack().pop()).split(ValueUtility.string(f.getStack().pop()));
         CastableValue[] array = new CastableValue[pieces.length];
         for (int i = 0; i < pieces.length; i++) {
             array[i] = CastableValue.of(pieces[i]);
@@ -329,18 +342,10 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         f.getStack().push(CastableValue.of(array));
         return State.NORMAL;
     }), 6.06, "split the top value of the stack by the second value on the stack", "Splits a by b, interpreting b as a regex and pushes the array result", "splits");
-    Instruction UPPERCASE = new Instruction(new VectorizedMonad(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String s = f.getStack().pop().getAsString().get();
-        f.getStack().push(CastableValue.of(s.toUpperCase()));
-        return State.NORMAL;
-    })), 6.06, "convert the top value of the stack to uppercase", "Pops a of the stack, converts every character in it to uppercase, and pushes the result", "toupper");
-    Instruction LOWERCASE = new Instruction(new VectorizedMonad(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String s = f.getStack().pop().getAsString().get();
-        f.getStack().push(CastableValue.of(s.toLowerCase()));
-        return State.NORMAL;
-    })), 6.06, "convert the top value of the stack to lowercase", "Pops a of the stack, converts every character in it to lowercase, and pushes the result", "tolower");
-    Instruction SWAPCASE = new Instruction(new VectorizedMonad(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String s = f.getStack().pop().getAsString().get();
+    Instruction UPPERCASE = new Instruction(new VectorizedMonad(SyntheticFunction.monad(Type.STRING, x -> CastableValue.of(ValueUtility.string(x).toUpperCase()))), 6.06, "convert the top value of the stack to uppercase", "Pops a of the stack, converts every character in it to uppercase, and pushes the result", "toupper");
+    Instruction LOWERCASE = new Instruction(new VectorizedMonad(SyntheticFunction.monad(Type.STRING, x -> CastableValue.of(ValueUtility.string(x).toLowerCase()))), 6.06, "convert the top value of the stack to lowercase", "Pops a of the stack, converts every character in it to lowercase, and pushes the result", "tolower");
+    Instruction SWAPCASE = new Instruction(new VectorizedMonad(SyntheticFunction.monad(Type.STRING, x -> {
+        String s = ValueUtility.string(x);
         StringBuilder builder = new StringBuilder();
         for (char c : s.toCharArray()) {
             if (Character.isLowerCase(c)) {
@@ -351,13 +356,18 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
                 builder.append(c);
             }
         }
-        f.getStack().push(CastableValue.of(builder.toString()));
-        return State.NORMAL;
+        return CastableValue.of(builder.toString());
     })), 6.06, "swap the case of each character in the value on the top of the stack", "Pops a of the stack, swaps the case of every character in it, and pushes the result", "toswap");
 
     //String array conversion, sub group .07
     Instruction STRING_TO_ARRAY = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String[] pieces = f.getStack().pop().getAsString().get().split("");
+        String s = ValueUtility.string(f.getStack().pop());
+        PackedArray packed = PackedArray.characters(s);
+        if (packed != null) {
+            f.getStack().push(CastableValue.of(packed));
+            return State.NORMAL;
+        }
+        String[] pieces = s.split("");
         CastableValue[] newArray = new CastableValue[pieces.length];
         for (int i = 0; i < pieces.length; i++) {
             newArray[i] = CastableValue.of(pieces[i]);
@@ -366,21 +376,18 @@ public interface ArrayInstructions { //Group 6, for convenience, strings are con
         return State.NORMAL;
     }), 6.07, "take the top value of the stack and push it as a character array", "Pops the top value of the stack, and splits it into individual characters, pushing the resulting array. This instruction failes if a is not an array", "string2array");
     Instruction ARRAY_TO_STRING = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.GENERAL_ARRAY), f -> {
-        CastableValue[] array = f.getStack().pop().getValueAs(CastableValue[].class).get();
+        CastableValue array = f.getStack().pop();
+        int length = ValueUtility.length(array);
         StringBuilder builder = new StringBuilder();
-        for(CastableValue value : array) {
-            builder.append(Program.valueToString(value));
+        for (int i = 0; i < length; i++) {
+            builder.append(Program.valueToString(ValueUtility.element(array, i)));
         }
         f.getStack().push(CastableValue.of(builder.toString()));
         return State.NORMAL;
     }), 6.07, "join the elements of the top value of the stack into a string", "Pops the top value of the stack, and joins all of the elements of array a into a single string. This instruction fails if a is not an array", "array2string");
-    Instruction CODEPOINT_TO_CHAR = new Instruction(new VectorizedMonad(new SyntheticFunction(PlasmaListUtil.buildList(Type.NUMBER), f -> {
-        f.getStack().push(CastableValue.of(String.valueOf((char) f.getStack().pop().getValueAs(BigDecimal.class).get().longValue())));
-        return State.NORMAL;
-    })), 6.07, "convert the top value of the stack from a codepoint to a character", "Pops the top value of the stack, and pushes the character referred to by the codepoint a. This instruction fails if a is not a number", "codepoint2char");
-    Instruction CHAR_TO_CODEPOINT = new Instruction(new VectorizedMonad(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String s = f.getStack().pop().getAsString().get();
-        f.getStack().push(CastableValue.of(new BigDecimal((int) s.length() == 0 ? '\0' : s.charAt(0))));
-        return State.NORMAL;
+    Instruction CODEPOINT_TO_CHAR = new Instruction(new VectorizedMonad(SyntheticFunction.monad(Type.NUMBER, x -> CastableValue.of(String.valueOf((char) ValueUtility.number(x).longValue())))), 6.07, "convert the top value of the stack from a codepoint to a character", "Pops the top value of the stack, and pushes the character referred to by the codepoint a. This instruction fails if a is not a number", "codepoint2char");
+    Instruction CHAR_TO_CODEPOINT = new Instruction(new VectorizedMonad(SyntheticFunction.monad(Type.STRING, x -> {
+        String s = ValueUtility.string(x);
+        return CastableValue.of(new BigDecimal((int) s.length() == 0 ? '\0' : s.charAt(0)));
     })), 6.07, "convert the top value of the stack from a character to a code", "Pops the top value of the stack, and pushes the codepoint referred to by the character a. If a is an empty string, the null-character code will be pushed, otherwise the first character of a will be used for the conversion. This instruction fails if a is not a string", "char2codepoint");
 }
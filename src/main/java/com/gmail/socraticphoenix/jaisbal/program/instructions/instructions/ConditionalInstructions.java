@@ -22,8 +22,10 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.instructions;
 
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
@@ -32,54 +34,12 @@ import java.math.BigDecimal;
 
 public interface ConditionalInstructions { //Group 2
     //Skip-lines, sub group .01
-    Instruction EQUAL = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if ((InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) == 0)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the top two values on the stack are equal", "Skips the next instruction if a and b are equal (see compare)", "=", "equal");
-    Instruction NOT_EQUAL = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if (InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) != 0) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the two top values on the stack are not equal", "Skips the next instruction if a and b are not equal (see compare)", "!=", "notequal");
-    Instruction GREATER = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) > 0)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the top value on the stack is greater than the next value on the stack", "Skips the next instruction if a > b (see compare)", ">", "greater");
-    Instruction LESS = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) < 0)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the top value on the stack is less than the next value on the stack", "Skips the next instruction if a < b (see compare)", "<", "less");
-    Instruction GREATER_EQUAL = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) >= 0)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the top value on the stack is greater than or equal to the next value on the stack", "Skips the next instruction if a >= b (see compare)", ">=", "greaterequal");
-    Instruction LESS_EQUAL = new Instruction(f -> {
-        Program.checkUnderflow(2, f);
-        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) <= 0)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "skip the next statement if the top value on the stack is less than the next value on the stack", "Skips the next instruction if a <= b (see compare)", "<=", "lessequal");
+    Instruction EQUAL = new Instruction(ConditionalInstructions::equal, 2.01, "skip the next statement if the top two values on the stack are equal", "Skips the next instruction if a and b are equal (see compare)", "=", "equal");
+    Instruction NOT_EQUAL = new Instruction(ConditionalInstructions::notEqual, 2.01, "skip the next statement if the two top values on the stack are not equal", "Skips the next instruction if a and b are not equal (see compare)", "!=", "notequal");
+    Instruction GREATER = new Instruction(ConditionalInstructions::greater, 2.01, "skip the next statement if the top value on the stack is greater than the next value on the stack", "Skips the next instruction if a > b (see compare)", ">", "greater");
+    Instruction LESS = new Instruction(ConditionalInstructions::less, 2.01, "skip the next statement if the top value on the stack is less than the next value on the stack", "Skips the next instruction if a < b (see compare)", "<", "less");
+    Instruction GREATER_EQUAL = new Instruction(ConditionalInstructions::greaterEqual, 2.01, "skip the next statement if the top value on the stack is greater than or equal to the next value on the stack", "Skips the next instruction if a >= b (see compare)", ">=", "greaterequal");
+    Instruction LESS_EQUAL = new Instruction(ConditionalInstructions::lessEqual, 2.01, "skip the next statement if the top value on the stack is less than the next value on the stack", "Skips the next instruction if a <= b (see compare)", "<=", "lessequal");
 
     Instruction EQUAL_ALL = new Instruction(f -> {
         Program.checkUnderflow(2, f);
@@ -201,24 +161,8 @@ public interface ConditionalInstructions { //Group 2
         }
         return State.NORMAL;
     }, 2.01, "skip the next statement if the values on the stack are in greatest to smallest order", "Consecutively pops every value of the stack, checks if it is <= the previously popped value, and ANDs the boolean result to a single boolean. If the final boolean is true, the next instruction is skipped (see compare)", "&<=", "lessequalall");
-    Instruction IF_TRUTHY = new Instruction(f -> {
-        Program.checkUnderflow(1, f);
-        CastableValue value = f.getStack().pop();
-        if (InstructionUtility.truthy(value)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "if the top value on the stack is truthy, skip the next statement", "Pops the top value of the stack. If a is truthy, skip the next statement. If a is a number, it is truthy if it is greater than 0. If a is a string, it is truthy if it equals \"true,\" \"t\" or \"yes.\" If a is an array, it is truthy if it contains more truthy values than falsy ones", "if");
-    Instruction IF_FALSEY = new Instruction(f -> {
-        Program.checkUnderflow(1, f);
-        CastableValue value = f.getStack().pop();
-        if (!InstructionUtility.truthy(value)) {
-            f.setCurrent(f.getCurrent() + 1);
-            return State.JUMPED;
-        }
-        return State.NORMAL;
-    }, 2.01, "if the top value on the stack is falsy, skip the next statement", "Pops the top value of the stack. If a is not truthy, skip the next statement (see if)", "!if");
+    Instruction IF_TRUTHY = new Instruction(ConditionalInstructions::ifTruthy, 2.01, "if the top value on the stack is truthy, skip the next statement", "Pops the top value of the stack. If a is truthy, skip the next statement. If a is a number, it is truthy if it is greater than 0. If a is a string, it is truthy if it equals \"true,\" \"t\" or \"yes.\" If a is an array, it is truthy if it contains more truthy values than falsy ones", "if");
+    Instruction IF_FALSEY = new Instruction(ConditionalInstructions::ifFalsey, 2.01, "if the top value on the stack is falsy, skip the next statement", "Pops the top value of the stack. If a is not truthy, skip the next statement (see if)", "!if");
     Instruction PUSH_TRUTHY = new Instruction(f -> {
         f.getStack().push(new CastableValue(new BigDecimal(1)));
         return State.NORMAL;
@@ -409,4 +353,79 @@ public interface ConditionalInstructions { //Group 2
         return State.NORMAL;
     }, 2.02, "compare the top value of the stack with the second value on the stack", "Compares a and b and pushes a: positive int if a > b, negative int if b < a, and 0 if a = b. If a or b is an array, and the other value is a non-array, the array value will be considered larger. If a and b are both numbers, a mathematical comparison takes place. If both a and b are arrays, the comparison is calculated by initializing a single int variable, and consecutively comparing each value of the arrays, then the difference between a.length and b.length is added to the variable. If a and b are both strings, lexical comparison takes place", "compare");
 
+    //The actions of the skips Opcodes#dispatch runs inline
+    static State equal(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if ((InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) == 0)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State notEqual(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if (InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) != 0) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State greater(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) > 0)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State less(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) < 0)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State greaterEqual(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) >= 0)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State lessEqual(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(2, f);
+        if (!(InstructionUtility.compare(f.getStack().pop(), f.getStack().pop()) <= 0)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State ifTruthy(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(1, f);
+        CastableValue value = f.getStack().pop();
+        if (InstructionUtility.truthy(value)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
+    static State ifFalsey(FunctionContext f) throws JAISBaLExecutionException {
+        Program.checkUnderflow(1, f);
+        CastableValue value = f.getStack().pop();
+        if (!InstructionUtility.truthy(value)) {
+            f.setCurrent(f.getCurrent() + 1);
+            return State.JUMPED;
+        }
+        return State.NORMAL;
+    }
+
 }
@@ -22,12 +22,16 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.instructions;
 
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.NumberUtility;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.math.PlasmaMathUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
@@ -36,7 +40,7 @@ import java.math.BigDecimal;
 
 public interface ControlFlowInstructions { //Group 3
     //General instructions, sub group .01
-    Instruction END = new Instruction(f -> State.NORMAL, 3.01, "end current language construct", "Ends a loop, if, ifelse, or other statement", "end");
+    Instruction END = new Instruction(ControlFlowInstructions::end, 3.01, "end current language construct", "Ends a loop, if, ifelse, or other statement", "end");
     Instruction BREAK = new Instruction(f -> State.TRANSMITTING_BREAK, 3.01, "break out of the current function frame or loop", "Breaks out of the current function frame or loop", "break");
     Instruction RETURN = new Instruction(f -> State.TRANSMITTING_RETURN, 3.02, "break out of the current function frame", "Breaks out of the current function frame", "return");
     Instruction SUPER_PUSH = new Instruction(f -> {
@@ -46,33 +50,8 @@ public interface ControlFlowInstructions { //Group 3
     }, 3.01, "pop the top value of the stack and push it to the parent stack", "Pops the top value of the stack and pushes it to the parent function frame's stack", "superpush");
 
     //Goto's, sub group .02
-    Instruction RELATIVE_JUMP = new Instruction(f -> {
-        CastableValue indexV = f.getCurrentArgEasy();
-        Type.NUMBER.checkMatches(indexV);
-        BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
-        int i = f.getCurrent();
-        int g = f.getCurrent() + index.intValue() - 1;
-        if (i != g) {
-            f.setCurrent(g);
-            return State.JUMPED;
-        } else {
-            return State.NORMAL;
-        }
-    }, InstructionUtility.number(), 3.02, "jump ${arg} instructions", "Jumps the given amount of instructions forward. The argument may be positive or negative, and the jump will likewise be forwards or backwards. This instruction takes one argument, a number (see pushnum). This instruction fails of the argument is not a 32-bit integer", "jump");
-    Instruction INDEX_JUMP = new Instruction(f -> {
-        CastableValue indexV = f.getCurrentArgEasy();
-        Type.NUMBER.checkMatches(indexV);
-        BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
-        int i = f.getCurrent();
-        int g = index.intValue();
-        if (i != g) {
-            f.setCurrent(g);
-            return State.JUMPED;
-        } else {
-            return State.NORMAL;
-        }
-
-    }, InstructionUtility.number(), 3.02, "jump to instruction ${arg}", "Jumps to the instruction at the given index. This instruction takes one argument, a number (see pushnum). This instruction fails if the argument is not a 32-bit integer", "jumpindex");
+    Instruction RELATIVE_JUMP = new Instruction(ControlFlowInstructions::relativeJump, InstructionUtility.number(), 3.02, "jump ${arg} instructions", "Jumps the given amount of instructions forward. The argument may be positive or negative, and the jump will likewise be forwards or backwards. This instruction takes one argument, a number (see pushnum). This instruction fails of the argument is not a 32-bit integer", "jump");
+    Instruction INDEX_JUMP = new Instruction(ControlFlowInstructions::indexJump, InstructionUtility.number(), 3.02, "jump to instruction ${arg}", "Jumps to the instruction at the given index. This instruction takes one argument, a number (see pushnum). This instruction fails if the argument is not a 32-bit integer", "jumpindex");
 
     //Loops, sub group .03
     Instruction FOR_LOOP = new Instruction(f -> {
@@ -81,9 +60,8 @@ public interface ControlFlowInstructions { //Group 3
         Program.checkUnderflow(1, f);
         CastableValue val = f.getStack().pop();
         if (Type.NUMBER.matches(val)) {
-            BigDecimal bd = BigDecimal.ZERO;
-            BigDecimal cond = val.getValueAs(BigDecimal.class).get();
-            while (bd.compareTo(cond) < 0) {
+            long iterations = NumberUtility.iterations(ValueUtility.number(val));
+            for (long i = 0; i < iterations; i++) {
                 State state = f.runSubset(end, c -> !PlasmaMathUtil.fitsBounds(start, c.getCurrent(), end));
                 if (state.isTransmit() || state == State.JUMPED) {
                     if (state != State.JUMPED) {
@@ -92,23 +70,13 @@ public interface ControlFlowInstructions { //Group 3
                     return state.deTransmitBreak();
                 }
                 f.setCurrent(start);
-                bd = bd.add(BigDecimal.ONE);
             }
             f.setCurrent(end);
         } else {
-            CastableValue[] values;
-            if (val.getValueAs(CastableValue[].class).isPresent()) {
-                values = val.getValueAs(CastableValue[].class).get();
-            } else {
-                String s = val.getAsString().get();
-                values = new CastableValue[s.length()];
-                String[] pieces = s.split("");
-                for (int i = 0; i < pieces.length; i++) {
-                    values[i] = CastableValue.of(pieces[i]);
-                }
-            }
-            for (CastableValue value : values) {
-                f.getStack().push(value);
+            CastableValue values = InstructionUtility.forEachValues(val);
+            int length = ValueUtility.length(values);
+            for (int i = 0; i < length; i++) {
+                f.getStack().push(ValueUtility.element(values, i));
                 State state = f.runSubset(end, c -> !PlasmaMathUtil.fitsBounds(start, c.getCurrent(), end));
                 if (state.isTransmit() || state == State.JUMPED) {
                     if (state != State.JUMPED) {
@@ -247,4 +215,37 @@ public interface ControlFlowInstructions { //Group 3
         }
     }), 3.04, "if the top two values of the stack are equal, execute the case block", "Pops the top two values off the stack, and if they are equal the cases block will be executed", "cases");
 
+    //The actions of the instructions Opcodes#dispatch runs inline
+    static State end(FunctionContext f) {
+        return State.NORMAL;
+    }
+
+    static State relativeJump(FunctionContext f) throws JAISBaLExecutionException {
+        CastableValue indexV = f.getCurrentArgEasy();
+        Type.NUMBER.checkMatches(indexV);
+        BigDecimal index = ValueUtility.number(indexV);
+        int i = f.getCurrent();
+        int g = f.getCurrent() + index.intValue() - 1;
+        if (i != g) {
+            f.setCurrent(g);
+            return State.JUMPED;
+        } else {
+            return State.NORMAL;
+        }
+    }
+
+    static State indexJump(FunctionContext f) throws JAISBaLExecutionException {
+        CastableValue indexV = f.getCurrentArgEasy();
+        Type.NUMBER.checkMatches(indexV);
+        BigDecimal index = ValueUtility.number(indexV);
+        int i = f.getCurrent();
+        int g = index.intValue();
+        if (i != g) {
+            f.setCurrent(g);
+            return State.JUMPED;
+        } else {
+            return State.NORMAL;
+        }
+    }
+
 }
@@ -26,10 +26,12 @@ import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.encode.JAISBaLCharset;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryConstant;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.AuxiliaryInstruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
@@ -38,45 +40,27 @@ import java.util.regex.Pattern;
 
 public interface FundamentalInstructions { //group -1
     Instruction FUNCTION = new Instruction(f -> {
-        Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get();
-        if (f.getProgram().getFunction(s).isPresent()) {
-            return f.getProgram().getFunction(s).get().run(f.getStack()).deTransmitBreak();
-        } else {
-            throw new JAISBaLExecutionException("Invalid value: no function called " + s);
+        Function function = InstructionUtility.target(f, false);
+        if (f.isTailCall()) {
+            f.setTailCall(function);
+            return State.TRANSMITTING_RETURN;
         }
+        return function.run(f.getStack()).deTransmitBreak();
     }, InstructionUtility.terminated(), -1, "call function ${arg}", "Calls the given function. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no function exists for the given name", "f", "call");
     Instruction CHAR_FUNCTION = new Instruction(f -> {
-        Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get();
-        if (f.getProgram().getFunction(s).isPresent()) {
-            return f.getProgram().getFunction(s).get().run(f.getStack()).deTransmitBreak();
-        } else {
-            throw new JAISBaLExecutionException("Invalid value: no function called " + s);
+        Function function = InstructionUtility.target(f, false);
+        if (f.isTailCall()) {
+            f.setTailCall(function);
+            return State.TRANSMITTING_RETURN;
         }
+        return function.run(f.getStack()).deTransmitBreak();
     }, InstructionUtility.fixed(1), -1, "call function ${arg}", "Calls the given function. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no function exists for the given name", "l", "call1");
-    Instruction SNIPPET = new Instruction(f -> {
-        Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get();
-        if (f.getProgram().getSnippet(s).isPresent()) {
-            return f.getProgram().getSnippet(s).get().runAsSurrogate(f).deTransmitBreak();
-        } else {
-            throw new JAISBaLExecutionException("Invalid value: no function called " + s);
-        }
-    }, InstructionUtility.terminated(), -1, "call snippet ${arg}", "Calls the given snippet. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no snippet exists for the given name", "p", "snippet");
-    Instruction CHAR_SNIPPET = new Instruction(f -> {
-        Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get();
-        if (f.getProgram().getSnippet(s).isPresent()) {
-            return f.getProgram().getSnippet(s).get().runAsSurrogate(f).deTransmitBreak();
-        } else {
-            throw new JAISBaLExecutionException("Invalid value: no function called " + s);
-        }
-    }, InstructionUtility.fixed(1), -1, "call snippet ${arg}", "Calls the given snippet. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no snippet exists for the given name", "t", "snippet1");
+    Instruction SNIPPET = new Instruction(f -> InstructionUtility.target(f, true).runAsSurrogate(f).deTransmitBreak(), InstructionUtility.terminated(), -1, "call snippet ${arg}", "Calls the given snippet. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no snippet exists for the given name", "p", "snippet");
+    Instruction CHAR_SNIPPET = new Instruction(f -> InstructionUtility.target(f, true).runAsSurrogate(f).deTransmitBreak(), InstructionUtility.fixed(1), -1, "call snippet ${arg}", "Calls the given snippet. This instruction takes one argument, terminated by '}' (see pushterm). This instruction fails if the given argument is not a string, or if no snippet exists for the given name", "t", "snippet1");
 
     Instruction IMPORT = new Instruction(f -> {
         Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get().replaceAll(Pattern.quote("."), "/");
+        String s = ValueUtility.string(f.getCurrentArgEasy()).replaceAll(Pattern.quote("."), "/");
         if (!f.getProgram().getImported().contains(s)) {
             File lib = new File(s + ".isbl");
             if (lib.exists()) {
@@ -90,7 +74,7 @@ public interface FundamentalInstructions { //group -1
     }, InstructionUtility.terminated(), -1, "import ${arg}", "Imports a library. The argument is converted to a file with the extension .isbl, and every function in the given library is added to the running program, prefixed with <libraryname>.", "import");
     Instruction IMPORT_UTF8 = new Instruction(f -> {
         Type.STRING.checkMatches(f.getCurrentArgEasy());
-        String s = f.getCurrentArgEasy().getAsString().get().replaceAll(Pattern.quote("."), "/");
+        String s = ValueUtility.string(f.getCurrentArgEasy()).replaceAll(Pattern.quote("."), "/");
         if (!f.getProgram().getImported().contains(s)) {
             File lib = new File(s + ".isbl");
             if (lib.exists()) {
@@ -27,6 +27,7 @@ import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
@@ -42,7 +43,7 @@ import java.net.URLConnection;
 
 public interface InputOutputInstructions { //group 0, non-standard
     Instruction READ_FILE = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        String s = f.getStack().pop().getAsString().get();
+        String s = ValueUtility.string(f.getStack().pop());
         File file = new File(s);
         if(file.exists()) {
             BufferedReader reader = new BufferedReader(new FileReader(file));
@@ -59,16 +60,16 @@ public interface InputOutputInstructions { //group 0, non-standard
         return State.NORMAL;
     }), 0.01, 20, "read the content of the file on the top of the stack", "Pops a string off the stack and searches the file system for a file of the same name. If the file exists, its content will be read and pushes as a string onto the stack, if it does not exist, and empty string will be pushed instead", "fread");
     Instruction WRITE_FILE = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING, Type.STRING), f -> {
-        File file = new File(f.getStack().pop().getAsString().get());
-        String content = f.getStack().pop().getAsString().get();
+        File file = new File(ValueUtility.string(f.getStack().pop()));
+        String content = ValueUtility.string(f.getStack().pop());
         FileWriter writer = new FileWriter(file);
         writer.write(content);
         writer.close();
         return State.NORMAL;
     }), 0.01, 40, "write the second value of the stack to the file on the top of the stack", "Pops a string off the stack and converts it to a file, then writes the string b to it. If the file does not exist it will be created", "fwrite");
     Instruction APPEND_FILE = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING, Type.STRING), f -> {
-        File file = new File(f.getStack().pop().getAsString().get());
-        String content = f.getStack().pop().getAsString().get();
+        File file = new File(ValueUtility.string(f.getStack().pop()));
+        String content = ValueUtility.string(f.getStack().pop());
         StringBuilder contentBuilder = new StringBuilder();
         if(file.exists()) {
             BufferedReader reader = new BufferedReader(new FileReader(file));
@@ -84,7 +85,7 @@ public interface InputOutputInstructions { //group 0, non-standard
         return State.NORMAL;
     }), 0.01, 40, "append the second value of the stack to the file on the top of the stack", "Pops a string off the stack and converts it to a file, then appends the string b to it. If the file does not exist it will be created", "fappend");
     Instruction READ_URL = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING), f -> {
-        URL url = new URL(f.getStack().pop().getAsString().get());
+        URL url = new URL(ValueUtility.string(f.getStack().pop()));
         URLConnection connection = url.openConnection();
         connection.setReadTimeout(1000);
         connection.setConnectTimeout(1000);
@@ -99,8 +100,8 @@ public interface InputOutputInstructions { //group 0, non-standard
         return State.NORMAL;
     }), 0.01, 10, "read the content of the url on the top of the stack", "Pops a string off the stack and converts it to a URL, the content of the URL is then read and then pushed onto the stack", "uread");
     Instruction POST_URL = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.STRING, Type.STRING), f -> {
-        URL url = new URL(f.getStack().pop().getAsString().get());
-        String content = f.getStack().pop().getAsString().get();
+        URL url = new URL(ValueUtility.string(f.getStack().pop()));
+        String content = ValueUtility.string(f.getStack().pop());
         URLConnection connection = url.openConnection();
         connection.setReadTimeout(1000);
         connection.setConnectTimeout(1000);
@@ -27,24 +27,21 @@ import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.InstructionUtility;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.List;
 
 public interface StackInstructions {
 
     static Instruction push(int chars) {
-        return new Instruction(f -> {
-            f.getStack().push(f.getCurrentArgEasy());
-            return State.NORMAL;
-        }, InstructionUtility.fixed(chars), 0.01, "push ${arg} onto the stack", "Pushes the given argument onto the stack. The argument is considered to be the next " + chars + " character(s) after this instruction", "push" + chars);
+        return new Instruction(Manipulators::pushArgument, InstructionUtility.fixed(chars), 0.01, "push ${arg} onto the stack", "Pushes the given argument onto the stack. The argument is considered to be the next " + chars + " character(s) after this instruction", "push" + chars);
     }
 
     static Instruction pushOutput(int chars) {
@@ -65,14 +62,8 @@ public interface StackInstructions {
 
     interface Manipulators { //Group 0
         //Pushes, sub group .01
-        Instruction PUSH_NUMBER = new Instruction(f -> {
-            f.getStack().push(f.getCurrentArgEasy());
-            return State.NORMAL;
-        }, InstructionUtility.number(), 0.01, "push ${arg} onto the stack", "Pushes a number onto the stack. This instruction takes one argument, a number, and continues reading the argument until the number literal terminates", "pushnum");
-        Instruction PUSH_TERMINATED = new Instruction(f -> {
-            f.getStack().push(f.getCurrentArgEasy());
-            return State.NORMAL;
-        }, InstructionUtility.terminated(), 0.01, "push ${arg} onto the stack", "Pushes any value onto the stack. This instruction takes one argument, and continues reading the argument until the '}' terminating character is found. '}' can be escaped or nested in [] to allow it to be used in the value itself", "pushterm");
+        Instruction PUSH_NUMBER = new Instruction(Manipulators::pushArgument, InstructionUtility.number(), 0.01, "push ${arg} onto the stack", "Pushes a number onto the stack. This instruction takes one argument, a number, and continues reading the argument until the number literal terminates", "pushnum");
+        Instruction PUSH_TERMINATED = new Instruction(Manipulators::pushArgument, InstructionUtility.terminated(), 0.01, "push ${arg} onto the stack", "Pushes any value onto the stack. This instruction takes one argument, and continues reading the argument until the '}' terminating character is found. '}' can be escaped or nested in [] to allow it to be used in the value itself", "pushterm");
         Instruction PUSH_NEW_LINE = new Instruction(f -> {
             f.getStack().push(CastableValue.of(System.lineSeparator()));
             return State.NORMAL;
@@ -94,63 +85,27 @@ public interface StackInstructions {
 
 
         //Pops, sub group .02
-        Instruction POP = new Instruction(f -> {
-            Program.checkUnderflow(1, f);
-            f.getStack().pop();
-            return State.NORMAL;
-        }, 0.02, "pop the top value off the stack", "Pops the top value off the stack", "pop");
+        Instruction POP = new Instruction(Manipulators::pop, 0.02, "pop the top value off the stack", "Pops the top value off the stack", "pop");
         Instruction POP_ALL = new Instruction(f -> {
-            while (!f.getStack().isEmpty()) {
-                f.getStack().pop();
-            }
+            f.getStack().clear();
             return State.NORMAL;
         }, 0.02, "clear the stack", "Pops every value off the stack", "popall");
         Instruction POP_ALL_BUT_ONE = new Instruction(f -> {
-            while (f.getStack().size() > 1) {
-                f.getStack().pop();
-            }
+            f.getStack().truncate(1);
             return State.NORMAL;
         }, 0.02, "pop every value of the stack, except for the bottom", "Pops every value off the stack, except for the bottom", "popmost");
 
         //Swaps, sub group .03
-        Instruction SWAP = new Instruction(f -> {
-            Program.checkUnderflow(2, f);
-            CastableValue top = f.getStack().pop();
-            CastableValue under = f.getStack().pop();
-            f.getStack().push(top);
-            f.getStack().push(under);
-            return State.NORMAL;
-        }, 0.03, "swap the top two values of the stack", "Pops the top two values off the stack, and then pushes them in reverse order", "swap");
+        Instruction SWAP = new Instruction(Manipulators::swap, 0.03, "swap the top two values of the stack", "Pops the top two values off the stack, and then pushes them in reverse order", "swap");
         Instruction SWAP_ALL = new Instruction(f -> {
-            int ind = 0;
-            CastableValue[] array = new CastableValue[f.getStack().size()];
-            while (!f.getStack().isEmpty()) {
-                array[ind] = f.getStack().pop();
-                ind++;
-            }
-
-            for (CastableValue value : array) {
-                f.getStack().push(value);
-            }
+            f.getStack().reverse();
             return State.NORMAL;
         }, 0.03, "swap the entire stack", "Pops every value off the stack and pushes them all back in reverse order.", "swapall");
 
         //Multipliers, sub group .04
-        Instruction DUPLICATE = new Instruction(f -> {
-            Program.checkUnderflow(1, f);
-            CastableValue value = f.getStack().pop();
-            f.getStack().push(value);
-            f.getStack().push(value);
-            return State.NORMAL;
-        }, 0.04, "duplicate the top value of the stack", "Pops the top value off the stack, and then pushes it twice", "dup", "duplicate");
+        Instruction DUPLICATE = new Instruction(Manipulators::duplicate, 0.04, "duplicate the top value of the stack", "Pops the top value off the stack, and then pushes it twice", "dup", "duplicate");
         Instruction DUPLICATE_ALL = new Instruction(f -> {
-            List<CastableValue> values = new ArrayList<>();
-            while (!f.getStack().isEmpty()) {
-                values.add(f.getStack().pop());
-            }
-            values = PlasmaListUtil.reverseList(values);
-            values.stream().forEach(f.getStack()::push);
-            values.stream().forEach(f.getStack()::push);
+            f.getStack().pushAll(f.getStack().toArray());
             return State.NORMAL;
         }, 0.04, "duplicate the entire stack", "Pops the entire stack, and then pushes every value to the stack, twice. For example, if the stack was [1, 2, 3], it would become [1, 2, 3, 1, 2, 3]", "dupall", "duplicateall");
         Instruction TRIPLICATE = new Instruction(f -> {
@@ -162,14 +117,9 @@ public interface StackInstructions {
             return State.NORMAL;
         }, 0.04, "triplicate the top value of the stack", "Pops the top value off the stack, and then pushes it thrice", "tri", "triplicate");
         Instruction TRIPLICATE_ALL = new Instruction(f -> {
-            List<CastableValue> values = new ArrayList<>();
-            while (!f.getStack().isEmpty()) {
-                values.add(f.getStack().pop());
-            }
-            values = PlasmaListUtil.reverseList(values);
-            values.stream().forEach(f.getStack()::push);
-            values.stream().forEach(f.getStack()::push);
-            values.stream().forEach(f.getStack()::push);
+            CastableValue[] values = f.getStack().toArray();
+            f.getStack().pushAll(values);
+            f.getStack().pushAll(values);
             return State.NORMAL;
         }, 0.04, "triplicate the entire stack", "Pops the entire stack, and then pushes every value to the stack, thrice. For example, if the stack was [1, 2], it would become [1, 2, 1, 2, 1, 2]", "triall", "triplicateall");
         Instruction DUPLICATE_MANY = new Instruction(f -> {
@@ -177,7 +127,7 @@ public interface StackInstructions {
             Type.NUMBER.checkMatches(value);
             Program.checkUnderflow(1, f);
 
-            BigInteger val = value.getValueAs(BigDecimal.class).get().toBigInteger();
+            BigInteger val = ValueUtility.number(value).toBigInteger();
             CastableValue toDup = f.getStack().pop();
 
             for (BigInteger i = BigInteger.ZERO; i.compareTo(val) < 0; i = i.add(BigInteger.ONE)) {
@@ -190,7 +140,7 @@ public interface StackInstructions {
             CastableValue value = f.getStack().pop();
             Type.NUMBER.checkMatches(value);
 
-            BigInteger val = value.getValueAs(BigDecimal.class).get().toBigInteger();
+            BigInteger val = ValueUtility.number(value).toBigInteger();
             CastableValue toDup = f.getStack().pop();
 
             for (BigInteger i = BigInteger.ZERO; i.compareTo(val) < 0; i = i.add(BigInteger.ONE)) {
@@ -201,33 +151,15 @@ public interface StackInstructions {
 
 
         //Register manipulators, sub group .05
-        Instruction STORE = new Instruction(f -> {
-            Program.checkUnderflow(1, f);
-            CastableValue indexV = f.getCurrentArgEasy();
-            Type.NUMBER.checkMatches(indexV);
-            CastableValue value = f.getStack().pop();
-            BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
-            f.getLocals().put(index.longValue(), value);
-            return State.NORMAL;
-        }, InstructionUtility.number(), 0.05, "store the top value of the stack into var${arg}", "Pops the top value off the stack and stores it in the given var. This instruction takes one argument, a number (see pushnum)", "store");
-        Instruction LOAD = new Instruction(f -> {
-            CastableValue indexV = f.getCurrentArgEasy();
-            Type.NUMBER.checkMatches(indexV);
-            BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
-            if (f.getLocals().get(index.longValue()) != null) {
-                f.getStack().push(f.getLocals().get(index.longValue()));
-            } else {
-                throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(indexV) + " does not lead to a registered local variable");
-            }
-            return State.NORMAL;
-        }, InstructionUtility.number(), 0.05, "push the value in var${arg} onto the stack", "Pushes the value in the given var onto the stack. This instruction takes on argument, a number (see pushnum)", "load");
+        Instruction STORE = new Instruction(Manipulators::store, InstructionUtility.number(), 0.05, "store the top value of the stack into var${arg}", "Pops the top value off the stack and stores it in the given var. This instruction takes one argument, a number (see pushnum)", "store");
+        Instruction LOAD = new Instruction(Manipulators::load, InstructionUtility.number(), 0.05, "push the value in var${arg} onto the stack", "Pushes the value in the given var onto the stack. This instruction takes on argument, a number (see pushnum)", "load");
 
         Instruction STORE_STACK = new Instruction(f -> {
             Program.checkUnderflow(2, f);
             CastableValue indexV = f.getStack().pop();
             Type.NUMBER.checkMatches(indexV);
             CastableValue value = f.getStack().pop();
-            BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
+            BigDecimal index = ValueUtility.number(indexV);
             f.getLocals().put(index.longValue(), value);
             return State.NORMAL;
         }, 0.05, "store the second value in the stack at var<top value of stack>", "Pops the top two values off the stack, and stores b in var a", "sstore");
@@ -235,7 +167,7 @@ public interface StackInstructions {
             Program.checkUnderflow(1, f);
             CastableValue indexV = f.getStack().pop();
             Type.NUMBER.checkMatches(indexV);
-            BigDecimal index = indexV.getValueAs(BigDecimal.class).get();
+            BigDecimal index = ValueUtility.number(indexV);
             if (f.getLocals().get(index.longValue()) != null) {
                 f.getStack().push(f.getLocals().get(index.longValue()));
             } else {
@@ -251,7 +183,7 @@ public interface StackInstructions {
             return State.NORMAL;
         }, 0.05, "store entire stack in var0 through var<stack size>", "Pops every value off the stack, and stores it in a var. The first pop is stored in var <size of stack>, and the second is stored in the next var, and so on, until var 0 is reached. This is implemented as such so that a call to storeall, followed by a call to loadall, does not alter the stack", "storeall");
         Instruction LOAD_ALL = new Instruction(f -> {
-            f.getLocals().entrySet().stream().sorted((a, b) -> Long.compare(b.getKey(), a.getKey())).forEach(e -> {
+            f.getLocals().toMap().entrySet().stream().sorted((a, b) -> Long.compare(b.getKey(), a.getKey())).forEach(e -> {
                 f.getStack().push(e.getValue());
             });
             return State.NORMAL;
@@ -264,7 +196,7 @@ public interface StackInstructions {
         Instruction IS_FULL = new Instruction(f -> {
             CastableValue value = f.getCurrentArgEasy();
             Type.NUMBER.checkMatches(value);
-            if (f.getLocals().containsKey(value.getValueAs(BigDecimal.class).get().longValue())) {
+            if (f.getLocals().containsKey(ValueUtility.number(value).longValue())) {
                 return ConditionalInstructions.PUSH_TRUTHY.getAction().apply(f);
             } else {
                 return ConditionalInstructions.PUSH_FALSEY.getAction().apply(f);
@@ -272,12 +204,64 @@ public interface StackInstructions {
         }, InstructionUtility.number(), 0.05, "push truthy if var${arg} is occupied, falsey otherwise", "Pushes a truthy value if the local variable given in the argument is occupied, falsey otherwise. This isntruction takes one argument, a number (see pushnum)", "isfull");
         Instruction IS_FULL_STACK = new Instruction(new SyntheticFunction(PlasmaListUtil.buildList(Type.NUMBER), f -> {
             CastableValue value = f.getStack().pop();
-            if (f.getLocals().containsKey(value.getValueAs(BigDecimal.class).get().longValue())) {
+            if (f.getLocals().containsKey(ValueUtility.number(value).longValue())) {
                 return ConditionalInstructions.PUSH_TRUTHY.getAction().apply(f);
             } else {
                 return ConditionalInstructions.PUSH_FALSEY.getAction().apply(f);
             }
         }), 0.05, "push truthy if var<top value of stack> is occupied, falsey otherwise", "Pushes a truthy value if the local variable at index a is occupied, falsey otherwise", "isfulls");
+
+        //The actions of the instructions Opcodes#dispatch runs inline, shared so the two can't drift apart
+        static State pushArgument(FunctionContext f) {
+            f.getStack().push(f.getCurrentArgEasy());
+            return State.NORMAL;
+        }
+
+        static State pop(FunctionContext f) throws JAISBaLExecutionException {
+            Program.checkUnderflow(1, f);
+            f.getStack().pop();
+            return State.NORMAL;
+        }
+
+        static State swap(FunctionContext f) throws JAISBaLExecutionException {
+            Program.checkUnderflow(2, f);
+            CastableValue top = f.getStack().pop();
+            CastableValue under = f.getStack().pop();
+            f.getStack().push(top);
+            f.getStack().push(under);
+            return State.NORMAL;
+        }
+
+        static State duplicate(FunctionContext f) throws JAISBaLExecutionException {
+            Program.checkUnderflow(1, f);
+            CastableValue value = f.getStack().pop();
+            f.getStack().push(value);
+            f.getStack().push(value);
+            return State.NORMAL;
+        }
+
+        static State store(FunctionContext f) throws JAISBaLExecutionException {
+            Program.checkUnderflow(1, f);
+            CastableValue indexV = f.getCurrentArgEasy();
+            Type.NUMBER.checkMatches(indexV);
+            CastableValue value = f.getStack().pop();
+            BigDecimal index = ValueUtility.number(indexV);
+            f.getLocals().put(index.longValue(), value);
+            return State.NORMAL;
+        }
+
+        static State load(FunctionContext f) throws JAISBaLExecutionException {
+            CastableValue indexV = f.getCurrentArgEasy();
+            Type.NUMBER.checkMatches(indexV);
+            BigDecimal index = ValueUtility.number(indexV);
+            CastableValue value = f.getLocals().get(index.longValue());
+            if (value != null) {
+                f.getStack().push(value);
+            } else {
+                throw new JAISBaLExecutionException("Invalid value: " + Program.valueToString(indexV) + " does not lead to a registered local variable");
+            }
+            return State.NORMAL;
+        }
     }
 
     interface Outputters { //Group 1
@@ -343,13 +327,9 @@ public interface StackInstructions {
             return State.NORMAL;
         }, 1.03, "pop off every value in the stack and print it", "Pops every value off the stack, and prints each one", "popoutall");
         Instruction POP_OUTPUT_RESTORE_ALL = new Instruction(f -> {
-            List<CastableValue> popped = new ArrayList<>();
-            while (!f.getStack().isEmpty()) {
-                CastableValue value = f.getStack().pop();
-                JAISBaL.getOut().print(Program.valueToString(value));
-                popped.add(value);
+            for (int i = 0; i < f.getStack().size(); i++) {
+                JAISBaL.getOut().print(Program.valueToString(f.getStack().peek(i)));
             }
-            PlasmaListUtil.reverseList(popped).forEach(f.getStack()::push);
             return State.NORMAL;
         }, 1.03, "pop off every value in the stack and print it, then restore the stack", "Pops every value off the stack, and prints each one, then pushes each value back onto the stack.", "popoutallrestore");
         Instruction POP_OUTPUT_NEWLINE = new Instruction(f -> {
@@ -364,13 +344,9 @@ public interface StackInstructions {
             return State.NORMAL;
         }, 1.03, "pop off every value in the stack and print each one with a new line", "Pops every value off the stack, and prints each one on a separate line", "popoutallln");
         Instruction POP_OUTPUT_RESTORE_ALL_NEWLINE = new Instruction(f -> {
-            List<CastableValue> popped = new ArrayList<>();
-            while (!f.getStack().isEmpty()) {
-                CastableValue value = f.getStack().pop();
-                JAISBaL.getOut().println(Program.valueToString(value));
-                popped.add(value);
+            for (int i = 0; i < f.getStack().size(); i++) {
+                JAISBaL.getOut().println(Program.valueToString(f.getStack().peek(i)));
             }
-            PlasmaListUtil.reverseList(popped).forEach(f.getStack()::push);
             return State.NORMAL;
         }, 1.03, "pop off every value in the stack and print each one with a new line, then restore the stack", "Pops every value off the stack, and prints each one on a separate line, then pushes each value back onto the stack.", "popoutalllnrestore");
 
@@ -30,8 +30,6 @@ import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
-import java.math.BigDecimal;
-
 public class AuxiliaryConstant extends Instruction {
 
     public AuxiliaryConstant() {
@@ -39,7 +37,7 @@ public class AuxiliaryConstant extends Instruction {
             CastableValue value = f.getCurrentArgEasy();
             Type.NUMBER.checkMatches(value);
             try {
-                int i = value.getValueAs(BigDecimal.class).get().intValue();
+                int i = ValueUtility.number(value).intValue();
                 f.getStack().push(InstructionRegistry.getAuxiliaryConstants().get(i));
                 return State.NORMAL;
             } catch (IndexOutOfBoundsException e) {
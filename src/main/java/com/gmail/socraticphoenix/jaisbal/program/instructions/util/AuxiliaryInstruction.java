@@ -25,11 +25,12 @@ package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
 import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
-import java.math.BigDecimal;
+import java.util.Optional;
 
 public class AuxiliaryInstruction extends Instruction {
 
@@ -38,7 +39,7 @@ public class AuxiliaryInstruction extends Instruction {
             CastableValue value = f.getCurrentArgEasy();
             Type.NUMBER.checkMatches(value);
             try {
-                int i = value.getValueAs(BigDecimal.class).get().intValue();
+                int i = ValueUtility.number(value).intValue();
                 return InstructionRegistry.getAuxiliaryInstructions().get(i).getAction().apply(f).deTransmitBreak();
             } catch (IndexOutOfBoundsException e) {
                 throw new JAISBaLExecutionException("Invalid value: no aux_instruction registered for: " + Program.valueToString(value));
@@ -46,4 +47,17 @@ public class AuxiliaryInstruction extends Instruction {
         }, InstructionUtility.number(), -1, "call auxiliary instruction #${arg}", "Calls the auxiliary instruction registered at the specified index. This instruction takes one argument, a number (see pushnum)", "F", "aux");
     }
 
+    //The instruction an aux call runs, its index is the instruction's argument so this is known before running, see Function#secure
+    public static Optional<Instruction> target(DecodedInstruction instruction) {
+        try {
+            CastableValue[] value = instruction.getValue();
+            if (value.length == 1 && ValueUtility.isNumber(value[0])) {
+                return Optional.of(InstructionRegistry.getAuxiliaryInstructions().get(ValueUtility.number(value[0]).intValue()));
+            }
+        } catch (Throwable ignore) {
+            //Bad indices fail when (and if) the instruction is executed
+        }
+        return Optional.empty();
+    }
+
 }
@@ -26,6 +26,8 @@ import com.gmail.socraticphoenix.jaisbal.program.State;
 import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
+import java.util.Collections;
+
 public class ConstantInstruction extends Instruction {
     private CastableValue value;
 
@@ -35,6 +37,7 @@ public class ConstantInstruction extends Instruction {
             return State.NORMAL;
         }, c -> null, group, explanation, documentation, aliases);
         this.value = value;
+        this.setStackEffect(StackEffect.of(Collections.emptyList(), StackEffect.typeOf(value)));
     }
 
     public ConstantInstruction(CastableValue value, String explanation, String documentation, String... aliases) {
@@ -24,7 +24,12 @@ package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
 
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.util.NumberNames;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.jaisbal.program.function.DecodedInstruction;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.math.PlasmaMathUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
@@ -37,6 +42,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -47,16 +53,16 @@ public interface InstructionUtility {
     List<String> TRUTHY = PlasmaListUtil.buildList("true", "yes", "y", "t");
 
     static CastableValue name(CastableValue value) {
-        if (value.getValueAs(BigDecimal.class).isPresent()) {
+        if (ValueUtility.isNumber(value)) {
             try {
-                return CastableValue.of(NumberNames.convert(value.getValueAs(BigDecimal.class).get().intValueExact()));
+                return CastableValue.of(NumberNames.convert(ValueUtility.number(value).intValueExact()));
             } catch (ArithmeticException e) {
-                return CastableValue.of(value.getAsString().get());
+                return CastableValue.of(ValueUtility.string(value));
             }
-        } else if (value.getAsString().isPresent()) {
-            return CastableValue.of(value.getAsString().get());
-        } else if (value.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] array = value.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isString(value)) {
+            return CastableValue.of(ValueUtility.string(value));
+        } else if (ValueUtility.isArray(value)) {
+            CastableValue[] array = ValueUtility.array(value);
             for (int i = 0; i < array.length; i++) {
                 array[i] = CastableValue.of(InstructionUtility.name(array[i]));
             }
@@ -66,6 +72,31 @@ public interface InstructionUtility {
         throw new IllegalStateException();
     }
 
+    //Resolves the function or snippet named by the current argument, remembering it at the call site so later calls skip the lookup.
+    //The target is checked against the security monitor every time, see Function#secure
+    static Function target(FunctionContext f, boolean snippet) throws JAISBaLExecutionException {
+        DecodedInstruction site = f.getCurrentDecoded();
+        Function target = site == null ? null : site.getTarget(f.getProgram());
+        if (target != null) {
+            //Cheap once checked, but the monitor may have changed since the call site was resolved
+            target.secure();
+            return target;
+        }
+
+        Type.STRING.checkMatches(f.getCurrentArgEasy());
+        String s = ValueUtility.string(f.getCurrentArgEasy());
+        Optional<Function> function = snippet ? f.getProgram().getSnippet(s) : f.getProgram().getFunction(s);
+        if (function.isPresent()) {
+            function.get().secure();
+            if (site != null) {
+                site.setTarget(f.getProgram(), function.get());
+            }
+            return function.get();
+        } else {
+            throw new JAISBaLExecutionException("Invalid value: no function called " + s);
+        }
+    }
+
     static ConstantInstruction constant(CastableValue value, String name) {
         return new ConstantInstruction(value, "push " + name + " onto the stack", "A constant that pushes " + name + " onto the stack", name.length() == 1 ? new String[0] : new String[]{name});
     }
@@ -89,12 +120,12 @@ public interface InstructionUtility {
     }
 
     static boolean truthy(CastableValue value) {
-        if (value.getValueAs(BigDecimal.class).isPresent()) {
-            return value.getValueAs(BigDecimal.class).get().compareTo(BigDecimal.ZERO) > 0;
-        } else if (value.getAsString().isPresent()) {
-            return InstructionUtility.TRUTHY.contains(value.getAsString().get().toLowerCase());
-        } else if (value.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] array = value.getValueAs(CastableValue[].class).get();
+        if (ValueUtility.isNumber(value)) {
+            return ValueUtility.number(value).compareTo(BigDecimal.ZERO) > 0;
+        } else if (ValueUtility.isString(value)) {
+            return InstructionUtility.TRUTHY.contains(ValueUtility.string(value).toLowerCase());
+        } else if (ValueUtility.isArray(value)) {
+            CastableValue[] array = ValueUtility.array(value);
             int truthy = 0;
             int falsy = 0;
             for (CastableValue val : array) {
@@ -109,12 +140,31 @@ public interface InstructionUtility {
         throw new IllegalStateException();
     }
 
+    //The array to run a for-each loop over, strings are viewed as arrays of characters without copying them, see ValueUtility#element
+    static CastableValue forEachValues(CastableValue val) {
+        if (ValueUtility.isArray(val)) {
+            return val;
+        } else {
+            String s = ValueUtility.string(val);
+            PackedArray characters = PackedArray.characters(s);
+            if (characters != null) {
+                return CastableValue.of(characters);
+            }
+            CastableValue[] values = new CastableValue[s.length()];
+            String[] pieces = s.split("");
+            for (int i = 0; i < pieces.length; i++) {
+                values[i] = CastableValue.of(pieces[i]);
+            }
+            return CastableValue.of(values);
+        }
+    }
+
     static CastableValue concat(CastableValue a, CastableValue b) {
-        if (a.getAsString().isPresent() && b.getAsString().isPresent()) {
-            return CastableValue.of(a.getAsString().get() + b.getAsString().get());
-        } else if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] ar = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] br = b.getValueAs(CastableValue[].class).get();
+        if (ValueUtility.isString(a) && ValueUtility.isString(b)) {
+            return Rope.concat(a, b);
+        } else if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] ar = ValueUtility.array(a);
+            CastableValue[] br = ValueUtility.array(b);
             CastableValue[] newa = new CastableValue[ar.length + br.length];
             int ind = 0;
             for (CastableValue anAr : ar) {
@@ -126,10 +176,10 @@ public interface InstructionUtility {
                 ind++;
             }
             return CastableValue.of(newa);
-        } else if ((a.getValueAs(CastableValue[].class).isPresent() && !b.getValueAs(CastableValue[].class).isPresent()) || (b.getValueAs(CastableValue[].class).isPresent() && !a.getValueAs(CastableValue[].class).isPresent())) {
-            CastableValue[] array = a.getValueAs(CastableValue[].class).isPresent() ? a.getValueAs(CastableValue[].class).get() : b.getValueAs(CastableValue[].class).get();
-            CastableValue scalar = a.getValueAs(CastableValue[].class).isPresent() ? b : a;
-            if (a.getValueAs(CastableValue[].class).isPresent()) {
+        } else if ((ValueUtility.isArray(a) && !ValueUtility.isArray(b)) || (ValueUtility.isArray(b) && !ValueUtility.isArray(a))) {
+            CastableValue[] array = ValueUtility.isArray(a) ? ValueUtility.array(a) : ValueUtility.array(b);
+            CastableValue scalar = ValueUtility.isArray(a) ? b : a;
+            if (ValueUtility.isArray(a)) {
                 CastableValue[] newa = new CastableValue[array.length + 1];
                 System.arraycopy(array, 0, newa, 0, array.length);
                 newa[newa.length - 1] = scalar;
@@ -145,30 +195,30 @@ public interface InstructionUtility {
     }
 
     static CastableValue div(CastableValue a, CastableValue b) {
-        if (a.getValueAs(BigDecimal.class).isPresent() && b.getValueAs(BigDecimal.class).isPresent()) {
-            BigDecimal ae = a.getValueAs(BigDecimal.class).get();
-            BigDecimal be = b.getValueAs(BigDecimal.class).get();
-            return CastableValue.of(ae.divide(be, ae.scale() + be.scale(), BigDecimal.ROUND_FLOOR).stripTrailingZeros());
-        } else if (a.getAsString().isPresent() && b.getAsString().isPresent()) {
+        if (ValueUtility.isNumber(a) && ValueUtility.isNumber(b)) {
+            BigDecimal ae = ValueUtility.number(a);
+            BigDecimal be = ValueUtility.number(b);
+            return CastableValue.of(NumberUtility.divide(ae, be));
+        } else if (ValueUtility.isString(a) && ValueUtility.isString(b)) {
             int i = 0;
-            String as = a.getAsString().get();
-            String bs = b.getAsString().get();
+            String as = ValueUtility.string(a);
+            String bs = ValueUtility.string(b);
             for (char c : as.toCharArray()) {
                 if (!bs.contains(String.valueOf(c))) {
                     i++;
                 }
             }
             return CastableValue.of(new BigDecimal(i));
-        } else if ((a.getValueAs(CastableValue[].class).isPresent() && !b.getValueAs(CastableValue[].class).isPresent()) || (b.getValueAs(CastableValue[].class).isPresent() && !a.getValueAs(CastableValue[].class).isPresent())) {
-            CastableValue[] array = a.getValueAs(CastableValue[].class).isPresent() ? a.getValueAs(CastableValue[].class).get() : b.getValueAs(CastableValue[].class).get();
-            CastableValue scalar = a.getValueAs(CastableValue[].class).isPresent() ? b : a;
+        } else if ((ValueUtility.isArray(a) && !ValueUtility.isArray(b)) || (ValueUtility.isArray(b) && !ValueUtility.isArray(a))) {
+            CastableValue[] array = ValueUtility.isArray(a) ? ValueUtility.array(a) : ValueUtility.array(b);
+            CastableValue scalar = ValueUtility.isArray(a) ? b : a;
             for (int i = 0; i < array.length; i++) {
                 array[i] = InstructionUtility.div(array[i], scalar);
             }
             return CastableValue.of(array);
-        } else if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] ar = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] br = a.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] ar = ValueUtility.array(a);
+            CastableValue[] br = ValueUtility.array(a);
             CastableValue[] newa = new CastableValue[Math.min(ar.length, br.length)];
             for (int i = 0; i < newa.length; i++) {
                 if (i < ar.length && i < br.length) {
@@ -185,27 +235,27 @@ public interface InstructionUtility {
     }
 
     static CastableValue sub(CastableValue a, CastableValue b) {
-        if (a.getValueAs(BigDecimal.class).isPresent() && b.getValueAs(BigDecimal.class).isPresent()) {
-            return CastableValue.of(a.getValueAs(BigDecimal.class).get().subtract(b.getValueAs(BigDecimal.class).get()).stripTrailingZeros());
-        } else if (a.getAsString().isPresent() && b.getAsString().isPresent()) {
+        if (ValueUtility.isNumber(a) && ValueUtility.isNumber(b)) {
+            return CastableValue.of(NumberUtility.subtract(ValueUtility.number(a), ValueUtility.number(b)));
+        } else if (ValueUtility.isString(a) && ValueUtility.isString(b)) {
             int i = 0;
-            String as = a.getAsString().get();
-            String bs = b.getAsString().get();
+            String as = ValueUtility.string(a);
+            String bs = ValueUtility.string(b);
             while (as.contains(bs)) {
                 as = as.replaceFirst(Pattern.quote(as), "");
                 i++;
             }
             return CastableValue.of(new BigDecimal(i));
-        } else if ((a.getValueAs(CastableValue[].class).isPresent() && !b.getValueAs(CastableValue[].class).isPresent()) || (b.getValueAs(CastableValue[].class).isPresent() && !a.getValueAs(CastableValue[].class).isPresent())) {
-            CastableValue[] array = a.getValueAs(CastableValue[].class).isPresent() ? a.getValueAs(CastableValue[].class).get() : b.getValueAs(CastableValue[].class).get();
-            CastableValue scalar = a.getValueAs(CastableValue[].class).isPresent() ? b : a;
+        } else if ((ValueUtility.isArray(a) && !ValueUtility.isArray(b)) || (ValueUtility.isArray(b) && !ValueUtility.isArray(a))) {
+            CastableValue[] array = ValueUtility.isArray(a) ? ValueUtility.array(a) : ValueUtility.array(b);
+            CastableValue scalar = ValueUtility.isArray(a) ? b : a;
             for (int i = 0; i < array.length; i++) {
                 array[i] = InstructionUtility.sub(array[i], scalar);
             }
             return CastableValue.of(array);
-        } else if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] ar = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] br = a.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] ar = ValueUtility.array(a);
+            CastableValue[] br = ValueUtility.array(a);
             CastableValue[] newa = new CastableValue[Math.min(ar.length, br.length)];
             for (int i = 0; i < newa.length; i++) {
                 if (i < ar.length && i < br.length) {
@@ -222,11 +272,11 @@ public interface InstructionUtility {
     }
 
     static CastableValue add(CastableValue a, CastableValue b) {
-        if (a.getValueAs(BigDecimal.class).isPresent() && b.getValueAs(BigDecimal.class).isPresent()) {
-            return CastableValue.of(a.getValueAs(BigDecimal.class).get().add(b.getValueAs(BigDecimal.class).get()).stripTrailingZeros());
-        } else if (a.getAsString().isPresent() && b.getAsString().isPresent()) {
-            String as = a.getAsString().get();
-            String bs = b.getAsString().get();
+        if (ValueUtility.isNumber(a) && ValueUtility.isNumber(b)) {
+            return CastableValue.of(NumberUtility.add(ValueUtility.number(a), ValueUtility.number(b)));
+        } else if (ValueUtility.isString(a) && ValueUtility.isString(b)) {
+            String as = ValueUtility.string(a);
+            String bs = ValueUtility.string(b);
             int i = 0;
             for (String s : PlasmaStringUtil.allPossibleSubs(bs)) {
                 if (as.contains(s) && s.length() > i) {
@@ -234,16 +284,16 @@ public interface InstructionUtility {
                 }
             }
             return CastableValue.of(new BigDecimal(i));
-        } else if ((a.getValueAs(CastableValue[].class).isPresent() && !b.getValueAs(CastableValue[].class).isPresent()) || (b.getValueAs(CastableValue[].class).isPresent() && !a.getValueAs(CastableValue[].class).isPresent())) {
-            CastableValue[] array = a.getValueAs(CastableValue[].class).isPresent() ? a.getValueAs(CastableValue[].class).get() : b.getValueAs(CastableValue[].class).get();
-            CastableValue scalar = a.getValueAs(CastableValue[].class).isPresent() ? b : a;
+        } else if ((ValueUtility.isArray(a) && !ValueUtility.isArray(b)) || (ValueUtility.isArray(b) && !ValueUtility.isArray(a))) {
+            CastableValue[] array = ValueUtility.isArray(a) ? ValueUtility.array(a) : ValueUtility.array(b);
+            CastableValue scalar = ValueUtility.isArray(a) ? b : a;
             for (int i = 0; i < array.length; i++) {
                 array[i] = InstructionUtility.add(array[i], scalar);
             }
             return CastableValue.of(array);
-        } else if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] ar = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] br = a.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] ar = ValueUtility.array(a);
+            CastableValue[] br = ValueUtility.array(a);
             CastableValue[] newa = new CastableValue[Math.max(ar.length, br.length)];
             for (int i = 0; i < newa.length; i++) {
                 if (i < ar.length && i < br.length) {
@@ -260,11 +310,11 @@ public interface InstructionUtility {
     }
 
     static CastableValue mul(CastableValue a, CastableValue b) {
-        if (a.getValueAs(BigDecimal.class).isPresent() && b.getValueAs(BigDecimal.class).isPresent()) {
-            return CastableValue.of(a.getValueAs(BigDecimal.class).get().multiply(b.getValueAs(BigDecimal.class).get()).stripTrailingZeros());
-        } else if ((a.getAsString().isPresent() && b.getValueAs(BigDecimal.class).isPresent()) || (b.getAsString().isPresent() && a.getValueAs(BigDecimal.class).isPresent())) {
-            BigDecimal bd = b.getValueAs(BigDecimal.class).isPresent() ? b.getValueAs(BigDecimal.class).get() : a.getValueAs(BigDecimal.class).get();
-            String s = b.getValueAs(BigDecimal.class).isPresent() ? a.getAsString().get() : b.getAsString().get();
+        if (ValueUtility.isNumber(a) && ValueUtility.isNumber(b)) {
+            return CastableValue.of(NumberUtility.multiply(ValueUtility.number(a), ValueUtility.number(b)));
+        } else if ((ValueUtility.isString(a) && ValueUtility.isNumber(b)) || (ValueUtility.isString(b) && ValueUtility.isNumber(a))) {
+            BigDecimal bd = ValueUtility.isNumber(b) ? ValueUtility.number(b) : ValueUtility.number(a);
+            String s = ValueUtility.isNumber(b) ? ValueUtility.string(a) : ValueUtility.string(b);
             StringBuilder builder = new StringBuilder();
             BigInteger i = bd.toBigInteger();
             for (BigInteger j = BigInteger.ZERO; j.compareTo(i) < 0; j = j.add(BigInteger.ONE)) {
@@ -275,26 +325,26 @@ public interface InstructionUtility {
                 builder.append(s.charAt(j));
             }
             return CastableValue.of(builder.toString());
-        } else if (a.getAsString().isPresent() && b.getAsString().isPresent()) {
+        } else if (ValueUtility.isString(a) && ValueUtility.isString(b)) {
             int i = 0;
-            String as = a.getAsString().get();
-            String bs = b.getAsString().get();
+            String as = ValueUtility.string(a);
+            String bs = ValueUtility.string(b);
             for (char c : as.toCharArray()) {
                 if (bs.contains(String.valueOf(c))) {
                     i++;
                 }
             }
             return CastableValue.of(new BigDecimal(i));
-        } else if ((a.getValueAs(CastableValue[].class).isPresent() && !b.getValueAs(CastableValue[].class).isPresent()) || (b.getValueAs(CastableValue[].class).isPresent() && !a.getValueAs(CastableValue[].class).isPresent())) {
-            CastableValue[] array = a.getValueAs(CastableValue[].class).isPresent() ? a.getValueAs(CastableValue[].class).get() : b.getValueAs(CastableValue[].class).get();
-            CastableValue scalar = a.getValueAs(CastableValue[].class).isPresent() ? b : a;
+        } else if ((ValueUtility.isArray(a) && !ValueUtility.isArray(b)) || (ValueUtility.isArray(b) && !ValueUtility.isArray(a))) {
+            CastableValue[] array = ValueUtility.isArray(a) ? ValueUtility.array(a) : ValueUtility.array(b);
+            CastableValue scalar = ValueUtility.isArray(a) ? b : a;
             for (int i = 0; i < array.length; i++) {
                 array[i] = InstructionUtility.mul(array[i], scalar);
             }
             return CastableValue.of(array);
-        } else if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] ar = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] br = a.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] ar = ValueUtility.array(a);
+            CastableValue[] br = ValueUtility.array(a);
             CastableValue[] newa = new CastableValue[Math.max(ar.length, br.length)];
             for (int i = 0; i < newa.length; i++) {
                 if (i < ar.length && i < br.length) {
@@ -315,43 +365,43 @@ public interface InstructionUtility {
     }
 
     static int compare(CastableValue a, CastableValue b) {
-        if (a.getValueAs(CastableValue[].class).isPresent() && b.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] aa = a.getValueAs(CastableValue[].class).get();
-            CastableValue[] bb = b.getValueAs(CastableValue[].class).get();
+        if (ValueUtility.isArray(a) && ValueUtility.isArray(b)) {
+            CastableValue[] aa = ValueUtility.array(a);
+            CastableValue[] bb = ValueUtility.array(b);
             int compare = 0;
             for (int i = 0; i < Math.min(aa.length, bb.length); i++) {
                 compare += InstructionUtility.compare(aa[i], bb[i]);
             }
             compare += aa.length - bb.length;
             return compare;
-        } else if (a.getValueAs(CastableValue[].class).isPresent()) {
+        } else if (ValueUtility.isArray(a)) {
             return 1;
-        } else if (b.getValueAs(CastableValue[].class).isPresent()) {
+        } else if (ValueUtility.isArray(b)) {
             return -1;
-        } else if (a.getValueAs(BigDecimal.class).isPresent() && b.getValueAs(BigDecimal.class).isPresent()) {
-            return a.getValueAs(BigDecimal.class).get().compareTo(b.getValueAs(BigDecimal.class).get());
+        } else if (ValueUtility.isNumber(a) && ValueUtility.isNumber(b)) {
+            return ValueUtility.number(a).compareTo(ValueUtility.number(b));
         } else {
-            return a.getAsString().get().compareTo(b.getAsString().get());
+            return ValueUtility.string(a).compareTo(ValueUtility.string(b));
         }
     }
 
     static CastableValue negate(CastableValue value) {
-        if (value.getValueAs(BigDecimal.class).isPresent()) {
-            BigDecimal decimal = value.getValueAs(BigDecimal.class).get();
+        if (ValueUtility.isNumber(value)) {
+            BigDecimal decimal = ValueUtility.number(value);
             if(decimal.equals(BigDecimal.ZERO)) {
                 return CastableValue.of(BigDecimal.ONE);
             } else {
                 return CastableValue.of(decimal.negate());
             }
-        } else if (value.getAsString().isPresent()) {
-            String s = value.getAsString().get();
+        } else if (ValueUtility.isString(value)) {
+            String s = ValueUtility.string(value);
             if (InstructionUtility.TRUTHY.contains(s.toLowerCase())) {
                 return CastableValue.of("false");
             } else {
                 return CastableValue.of("true");
             }
-        } else if (value.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] old = value.getValueAs(CastableValue[].class).get();
+        } else if (ValueUtility.isArray(value)) {
+            CastableValue[] old = ValueUtility.array(value);
             CastableValue[] newa = new CastableValue[old.length];
             for (int i = 0; i < old.length; i++) {
                 newa[i] = InstructionUtility.negate(old[i]);
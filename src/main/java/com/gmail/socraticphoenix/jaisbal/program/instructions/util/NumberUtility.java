@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//Integer arithmetic on long when both operands are small integers, BigDecimal otherwise. Results are always
+//identical to the plain BigDecimal operation followed by stripTrailingZeros()
+public interface NumberUtility {
+    BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    //Integers of at most 18 digits, so the sum or difference of two of them can't overflow
+    static boolean isSmall(BigDecimal value) {
+        return value.scale() <= 0 && value.precision() - value.scale() <= 18;
+    }
+
+    //Integers of at most 9 digits, so the product of two of them can't overflow
+    static boolean isTiny(BigDecimal value) {
+        return value.scale() <= 0 && value.precision() - value.scale() <= 9;
+    }
+
+    static BigDecimal of(long value) {
+        return value % 10 != 0 ? BigDecimal.valueOf(value) : BigDecimal.valueOf(value).stripTrailingZeros();
+    }
+
+    static BigDecimal add(BigDecimal a, BigDecimal b) {
+        if (NumberUtility.isSmall(a) && NumberUtility.isSmall(b)) {
+            return NumberUtility.of(a.longValue() + b.longValue());
+        }
+        return a.add(b).stripTrailingZeros();
+    }
+
+    static BigDecimal subtract(BigDecimal a, BigDecimal b) {
+        if (NumberUtility.isSmall(a) && NumberUtility.isSmall(b)) {
+            return NumberUtility.of(a.longValue() - b.longValue());
+        }
+        return a.subtract(b).stripTrailingZeros();
+    }
+
+    static BigDecimal multiply(BigDecimal a, BigDecimal b) {
+        if (NumberUtility.isTiny(a) && NumberUtility.isTiny(b)) {
+            return NumberUtility.of(a.longValue() * b.longValue());
+        }
+        return a.multiply(b).stripTrailingZeros();
+    }
+
+    //Floored division to the combined scale of the operands, which is plain floorDiv for two scale 0 integers
+    static BigDecimal divide(BigDecimal a, BigDecimal b) {
+        if (a.scale() == 0 && b.scale() == 0 && b.signum() != 0 && NumberUtility.isSmall(a) && NumberUtility.isSmall(b)) {
+            return NumberUtility.of(Math.floorDiv(a.longValue(), b.longValue()));
+        }
+        return a.divide(b, a.scale() + b.scale(), BigDecimal.ROUND_FLOOR).stripTrailingZeros();
+    }
+
+    //The number of times a for loop over the given number runs, anything beyond Long.MAX_VALUE never finishes anyway
+    static long iterations(BigDecimal limit) {
+        if (limit.signum() <= 0) {
+            return 0;
+        } else if (limit.compareTo(NumberUtility.LONG_MAX) >= 0) {
+            return Long.MAX_VALUE;
+        } else {
+            return limit.setScale(0, RoundingMode.CEILING).longValue();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
+
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//An array of integers, decimals or single characters kept in primitive arrays (or the string they came from). Elements are boxed one at a time when they're read, and
+//the whole array is boxed (and from then on only kept boxed) the first time it's used as a plain CastableValue[], see ValueUtility#array
+public class PackedArray extends PlasmaObject {
+    private static final int INTEGERS = 0;
+    private static final int DECIMALS = 1;
+    private static final int CHARACTERS = 2;
+    //One shared value for each char, made the first time it's needed
+    private static final AtomicReferenceArray<CastableValue> CHARACTER_VALUES = new AtomicReferenceArray<>(Character.MAX_VALUE + 1);
+
+    private int kind;
+    private int length;
+    private long[] longs; //integers, or the unscaled values of decimals
+    private int[] scales;
+    private CharSequence chars; //the string itself when made from one, it isn't copied
+    private volatile CastableValue[] boxed;
+
+    private PackedArray(int kind, int length) {
+        this.kind = kind;
+        this.length = length;
+    }
+
+    //[start, start + 1, ... start + size - 1] as BigIntegers, or null if they don't fit in a long
+    public static PackedArray range(BigInteger start, int size) {
+        if (start.bitLength() >= 63 || size < 0 || start.add(BigInteger.valueOf(size)).bitLength() >= 63) {
+            return null;
+        }
+        PackedArray array = new PackedArray(PackedArray.INTEGERS, size);
+        array.longs = new long[size];
+        long value = start.longValue();
+        for (int i = 0; i < size; i++) {
+            array.longs[i] = value + i;
+        }
+        return array;
+    }
+
+    //Each character of the string as a string, or null if the string is empty (splitting it gives one empty string)
+    public static PackedArray characters(String s) {
+        if (s.isEmpty()) {
+            return null;
+        }
+        PackedArray array = new PackedArray(PackedArray.CHARACTERS, s.length());
+        array.chars = s;
+        return array;
+    }
+
+    public static CastableValue character(char c) {
+        CastableValue value = PackedArray.CHARACTER_VALUES.get(c);
+        if (value == null) {
+            value = CastableValue.of(String.valueOf(c));
+            if (!PackedArray.CHARACTER_VALUES.compareAndSet(c, null, value)) {
+                value = PackedArray.CHARACTER_VALUES.get(c);
+            }
+        }
+        return value;
+    }
+
+    //Packs the values if they're all BigIntegers or all BigDecimals that fit in a long, or all one character strings
+    public static CastableValue pack(CastableValue[] values) {
+        PackedArray array = PackedArray.tryPack(values);
+        return CastableValue.of(array == null ? values : array);
+    }
+
+    private static PackedArray tryPack(CastableValue[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+        Object first = values[0] == null ? null : values[0].getValue().orElse(null);
+        int kind = first instanceof BigInteger ? PackedArray.INTEGERS : first instanceof BigDecimal ? PackedArray.DECIMALS : first instanceof String ? PackedArray.CHARACTERS : -1;
+        if (kind == -1) {
+            return null;
+        }
+
+        PackedArray array = new PackedArray(kind, values.length);
+        char[] chars = null;
+        if (kind == PackedArray.CHARACTERS) {
+            chars = new char[values.length];
+            array.chars = CharBuffer.wrap(chars);
+        } else {
+            array.longs = new long[values.length];
+            if (kind == PackedArray.DECIMALS) {
+                array.scales = new int[values.length];
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            Object raw = values[i] == null ? null : values[i].getValue().orElse(null);
+            if (kind == PackedArray.INTEGERS && raw instanceof BigInteger && ((BigInteger) raw).bitLength() < 64) {
+                array.longs[i] = ((BigInteger) raw).longValue();
+            } else if (kind == PackedArray.DECIMALS && raw instanceof BigDecimal && ((BigDecimal) raw).unscaledValue().bitLength() < 64) {
+                array.longs[i] = ((BigDecimal) raw).unscaledValue().longValue();
+                array.scales[i] = ((BigDecimal) raw).scale();
+            } else if (kind == PackedArray.CHARACTERS && raw instanceof String && ((String) raw).length() == 1) {
+                chars[i] = ((String) raw).charAt(0);
+            } else {
+                return null;
+            }
+        }
+        return array;
+    }
+
+    public int length() {
+        return this.length;
+    }
+
+    public boolean isBoxed() {
+        return this.boxed != null;
+    }
+
+    //The characters joined back into a string, or null if this isn't an array of characters or has been boxed
+    public String characters() {
+        CharSequence chars = this.chars;
+        return chars == null || this.boxed != null ? null : chars.toString();
+    }
+
+    public CastableValue get(int index) {
+        CastableValue[] boxed = this.boxed;
+        long[] longs = this.longs;
+        int[] scales = this.scales;
+        CharSequence chars = this.chars;
+        if (boxed != null || (longs == null && chars == null) || (this.kind == PackedArray.DECIMALS && scales == null)) {
+            return this.boxed[index];
+        } else if (this.kind == PackedArray.INTEGERS) {
+            return CastableValue.of(BigInteger.valueOf(longs[index]));
+        } else if (this.kind == PackedArray.DECIMALS) {
+            return CastableValue.of(BigDecimal.valueOf(longs[index], scales[index]));
+        } else {
+            return PackedArray.character(chars.charAt(index));
+        }
+    }
+
+    public synchronized CastableValue[] boxed() {
+        if (this.boxed == null) {
+            CastableValue[] boxed = new CastableValue[this.length];
+            for (int i = 0; i < boxed.length; i++) {
+                boxed[i] = this.get(i);
+            }
+            //Dropped once the boxed copy is visible, get reads it from then on
+            this.boxed = boxed;
+            this.longs = null;
+            this.scales = null;
+            this.chars = null;
+        }
+        return this.boxed;
+    }
+
+}
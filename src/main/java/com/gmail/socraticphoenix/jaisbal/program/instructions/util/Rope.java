@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
+
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+//A string built up by concatenation. Ropes grown from one another share a buffer with room on both ends, so appending to the newest
+//rope (or prepending to it) only copies the new characters. The characters of a rope are never changed once written, and the whole
+//string is only made when it's needed, see ValueUtility#string
+public class Rope extends PlasmaObject implements CharSequence {
+    //Shorter concatenations stay plain strings
+    public static final int THRESHOLD = 256;
+
+    private Buffer buffer;
+    private int from;
+    private int to;
+    private volatile String string;
+
+    private Rope(Buffer buffer, int from, int to) {
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+    }
+
+    //a + b, where either may already be a rope
+    public static CastableValue concat(CastableValue a, CastableValue b) {
+        Object ar = ValueUtility.raw(a);
+        Object br = ValueUtility.raw(b);
+        if (ar instanceof Rope) {
+            return CastableValue.of(((Rope) ar).append(ValueUtility.string(b)));
+        } else if (br instanceof Rope) {
+            return CastableValue.of(((Rope) br).prepend(ValueUtility.string(a)));
+        }
+        String as = ValueUtility.string(a);
+        String bs = ValueUtility.string(b);
+        if (as.length() + bs.length() < Rope.THRESHOLD) {
+            return CastableValue.of(as + bs);
+        } else {
+            return CastableValue.of(Rope.of(as).append(bs));
+        }
+    }
+
+    public static Rope of(String s) {
+        Buffer buffer = new Buffer(s.length() * 2 + 16, s.length() / 2 + 8);
+        s.getChars(0, s.length(), buffer.chars, buffer.head);
+        buffer.tail += s.length();
+        return new Rope(buffer, buffer.head, buffer.tail);
+    }
+
+    public Rope append(String s) {
+        Buffer buffer = this.buffer;
+        synchronized (buffer) {
+            if (this.to == buffer.tail && buffer.chars.length - buffer.tail >= s.length()) {
+                s.getChars(0, s.length(), buffer.chars, buffer.tail);
+                buffer.tail += s.length();
+                return new Rope(buffer, this.from, buffer.tail);
+            }
+        }
+        //Either another rope already grew from this one, or there's no room left, the copy gets twice the room it needs
+        int length = this.length() + s.length();
+        Buffer grown = new Buffer(length * 2 + 16, length / 4 + 8);
+        this.copyTo(grown.chars, grown.head);
+        s.getChars(0, s.length(), grown.chars, grown.head + this.length());
+        grown.tail += length;
+        return new Rope(grown, grown.head, grown.tail);
+    }
+
+    public Rope prepend(String s) {
+        Buffer buffer = this.buffer;
+        synchronized (buffer) {
+            if (this.from == buffer.head && buffer.head >= s.length()) {
+                buffer.head -= s.length();
+                s.getChars(0, s.length(), buffer.chars, buffer.head);
+                return new Rope(buffer, buffer.head, this.to);
+            }
+        }
+        int length = this.length() + s.length();
+        Buffer grown = new Buffer(length * 2 + 16, length + 8);
+        s.getChars(0, s.length(), grown.chars, grown.head);
+        this.copyTo(grown.chars, grown.head + s.length());
+        grown.tail += length;
+        return new Rope(grown, grown.head, grown.tail);
+    }
+
+    private void copyTo(char[] chars, int index) {
+        synchronized (this.buffer) {
+            System.arraycopy(this.buffer.chars, this.from, chars, index, this.length());
+        }
+    }
+
+    @Override
+    public int length() {
+        return this.to - this.from;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length()) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        synchronized (this.buffer) {
+            return this.buffer.chars[this.from + index];
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String string = this.string;
+        if (string == null) {
+            synchronized (this.buffer) {
+                string = new String(this.buffer.chars, this.from, this.length());
+            }
+            this.string = string;
+        }
+        return string;
+    }
+
+    private static class Buffer {
+        private char[] chars;
+        private int head;
+        private int tail;
+
+        public Buffer(int capacity, int head) {
+            this.chars = new char[capacity];
+            this.head = head;
+            this.tail = head;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
+
+import com.gmail.socraticphoenix.jaisbal.program.Type;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class StackEffect extends PlasmaObject {
+    private List<Type> inputs;
+    private BiFunction<List<Type>, Type, List<Type>> outputs;
+
+    //Inputs are listed top first. The outputs are computed from the known types of the inputs and of the instruction's argument (null where unknown), and are listed in the order they're pushed (null where unknown)
+    public StackEffect(List<Type> inputs, BiFunction<List<Type>, Type, List<Type>> outputs) {
+        this.inputs = inputs;
+        this.outputs = outputs;
+    }
+
+    public static StackEffect of(List<Type> inputs, Type... outputs) {
+        List<Type> pushed = Collections.unmodifiableList(Arrays.asList(outputs));
+        return new StackEffect(inputs, (in, arg) -> pushed);
+    }
+
+    //Pops some values and pushes a number if they were all numbers, like add or inc
+    public static StackEffect numeric(int arity) {
+        return new StackEffect(Collections.nCopies(arity, Type.WILDCARD), (in, arg) -> Collections.singletonList(in.stream().allMatch(t -> t == Type.NUMBER) ? Type.NUMBER : null));
+    }
+
+    //Pushes the instruction's argument
+    public static StackEffect argument() {
+        return new StackEffect(Collections.emptyList(), (in, arg) -> Collections.singletonList(arg));
+    }
+
+    //The type of a plain number or string, or null for anything else
+    public static Type typeOf(CastableValue value) {
+        Object raw = value == null ? null : value.getValue().orElse(null);
+        return raw instanceof BigDecimal ? Type.NUMBER : raw instanceof String ? Type.STRING : null;
+    }
+
+    public List<Type> getInputs() {
+        return this.inputs;
+    }
+
+    //Whether operands of the given known types (top first) are sure to be accepted
+    public boolean accepts(List<Type> known) {
+        if (known.size() < this.inputs.size()) {
+            return false;
+        }
+        for (int i = 0; i < this.inputs.size(); i++) {
+            Type input = this.inputs.get(i);
+            Type type = known.get(i);
+            if (!input.isWildcard() && !(input.isNumber() && type == Type.NUMBER) && !(input.isString() && type == Type.STRING)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Type> apply(List<Type> known, Type arg) {
+        List<Type> operands = new ArrayList<>(known);
+        while (operands.size() < this.inputs.size()) {
+            operands.add(null);
+        }
+        return this.outputs.apply(operands, arg);
+    }
+
+}
@@ -22,6 +22,8 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
 
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.util.DangerousBiFunction;
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
@@ -31,38 +33,102 @@ import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
 import com.gmail.socraticphoenix.plasma.collection.PlasmaListUtil;
 import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public class SyntheticFunction implements DangerousFunction<FunctionContext, State> {
-    private List<Type> parameters;
+    private Type[] parameters;
     private DangerousFunction<FunctionContext, State> func;
+    private DangerousFunction<CastableValue, CastableValue> monad;
+    private DangerousBiFunction<CastableValue, CastableValue, CastableValue> dyad;
+    private boolean pure;
 
     public SyntheticFunction(List<Type> parameters, DangerousFunction<FunctionContext, State> func) {
-        this.parameters = parameters;
+        this.parameters = parameters.toArray(new Type[parameters.size()]);
         this.func = func;
     }
 
+    //Pops a and pushes kernel(a), the kernel is also applied straight to array elements, see VectorizedMonad
+    public static SyntheticFunction monad(Type a, DangerousFunction<CastableValue, CastableValue> kernel) {
+        SyntheticFunction function = new SyntheticFunction(PlasmaListUtil.buildList(a), f -> {
+            f.getStack().push(kernel.apply(f.getStack().pop()));
+            return State.NORMAL;
+        });
+        function.monad = kernel;
+        function.pure = true;
+        return function;
+    }
+
+    //Pops a, then b, and pushes kernel(a, b), the kernel is also applied straight to array elements, see VectorizedDyad
+    public static SyntheticFunction dyad(Type a, Type b, DangerousBiFunction<CastableValue, CastableValue, CastableValue> kernel) {
+        SyntheticFunction function = new SyntheticFunction(PlasmaListUtil.buildList(a, b), f -> {
+            CastableValue first = f.getStack().pop();
+            CastableValue second = f.getStack().pop();
+            f.getStack().push(kernel.apply(first, second));
+            return State.NORMAL;
+        });
+        function.dyad = kernel;
+        function.pure = true;
+        return function;
+    }
+
+    //Marks the kernel as having side effects (or giving different results for the same value), so it's only ever applied in order
+    public SyntheticFunction impure() {
+        this.pure = false;
+        return this;
+    }
+
+    public boolean isPure() {
+        return this.pure;
+    }
+
+    public boolean isMonad() {
+        return this.monad != null;
+    }
+
+    public boolean isDyad() {
+        return this.dyad != null;
+    }
+
+    //Applies the kernel to a value that isn't on the stack, failing just like apply would if it were
+    public CastableValue applyMonad(CastableValue a) throws Throwable {
+        this.parameters[0].checkMatches(a);
+        return this.monad.apply(a);
+    }
+
+    //Applies the kernel to values that aren't on the stack, failing just like apply would if they were (b is left on the stack if a doesn't fit)
+    public CastableValue applyDyad(ValueStack stack, CastableValue a, CastableValue b) throws Throwable {
+        if (!this.parameters[0].matches(a)) {
+            stack.push(b);
+            this.parameters[0].checkMatches(a);
+        }
+        this.parameters[1].checkMatches(b);
+        return this.dyad.apply(a, b);
+    }
+
     @Override
     public State apply(FunctionContext context) throws Throwable {
-        this.validate(context.getStack(), context);
+        if (!context.isChecked()) {
+            this.validate(context.getStack(), context);
+        }
         return this.func.apply(context);
     }
 
-    private void validate(Stack<CastableValue> stack, FunctionContext context) throws JAISBaLExecutionException {
-        if (this.parameters.size() == 0) {
+    //Peeks at each operand where it sits, the stack is only touched if one of them doesn't fit
+    private void validate(ValueStack stack, FunctionContext context) throws JAISBaLExecutionException {
+        Type[] parameters = this.parameters;
+        if (parameters.length == 0) {
             return;
         }
 
-        Program.checkUnderflow(this.parameters.size(), context);
+        Program.checkUnderflow(parameters.length, context);
 
-        List<CastableValue> verified = new ArrayList<>();
-        for(Type param : this.parameters) {
-            CastableValue value = stack.pop();
-            param.checkMatches(value);
-            verified.add(value);
+        for (int i = 0; i < parameters.length; i++) {
+            if (!parameters[i].matches(stack.peek(i))) {
+                //Values that were checked before the failure are consumed
+                CastableValue value = stack.peek(i);
+                stack.truncate(stack.size() - i - 1);
+                parameters[i].checkMatches(value);
+            }
         }
-        PlasmaListUtil.reverseList(verified).forEach(stack::push);
     }
 }
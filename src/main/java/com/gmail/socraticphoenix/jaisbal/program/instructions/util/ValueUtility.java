@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.util;
+
+import com.gmail.socraticphoenix.plasma.math.PlasmaMathUtil;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+//Typed access to stack values. The kinds JAISBaL itself produces (BigDecimal, String, Rope, CastableValue[], PackedArray, Map) are
+//told apart by their runtime class, anything else goes through CastableValue's casting like before
+public interface ValueUtility {
+
+    static Object raw(CastableValue value) {
+        return value.getValue().orElse(null);
+    }
+
+    static boolean isNumber(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof BigDecimal) {
+            return true;
+        } else if (raw instanceof String || raw instanceof Rope) {
+            return PlasmaMathUtil.isBigDecimal(raw.toString());
+        } else if (raw instanceof CastableValue[] || raw instanceof PackedArray || raw instanceof Map) {
+            return false;
+        } else {
+            return value.getValueAs(BigDecimal.class).isPresent();
+        }
+    }
+
+    static BigDecimal number(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof BigDecimal) {
+            return (BigDecimal) raw;
+        } else if (raw instanceof Rope) {
+            return new BigDecimal(raw.toString());
+        } else {
+            return value.getValueAs(BigDecimal.class).get();
+        }
+    }
+
+    static boolean isString(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof String || raw instanceof Rope) {
+            return true;
+        } else if (raw instanceof CastableValue[] || raw instanceof PackedArray) {
+            return false;
+        } else {
+            return value.getAsString().isPresent();
+        }
+    }
+
+    static String string(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof String) {
+            return (String) raw;
+        } else if (raw instanceof Rope) {
+            return raw.toString();
+        } else {
+            return value.getAsString().get();
+        }
+    }
+
+    static boolean isArray(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof CastableValue[] || raw instanceof PackedArray) {
+            return true;
+        } else if (raw instanceof BigDecimal || raw instanceof String || raw instanceof Rope || raw instanceof Map) {
+            return false;
+        } else {
+            return value.getValueAs(CastableValue[].class).isPresent();
+        }
+    }
+
+    //The elements of an array, boxing a packed array for good since the caller may write to them
+    static CastableValue[] array(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        if (raw instanceof CastableValue[]) {
+            return (CastableValue[]) raw;
+        } else if (raw instanceof PackedArray) {
+            return ((PackedArray) raw).boxed();
+        } else {
+            return value.getValueAs(CastableValue[].class).get();
+        }
+    }
+
+    static boolean isPacked(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        return raw instanceof PackedArray && !((PackedArray) raw).isBoxed();
+    }
+
+    //Read only access to an array, packed arrays aren't boxed
+    static int length(CastableValue value) {
+        Object raw = ValueUtility.raw(value);
+        return raw instanceof PackedArray ? ((PackedArray) raw).length() : ValueUtility.array(value).length;
+    }
+
+    static CastableValue element(CastableValue value, int index) {
+        Object raw = ValueUtility.raw(value);
+        return raw instanceof PackedArray ? ((PackedArray) raw).get(index) : ValueUtility.array(value)[index];
+    }
+
+}
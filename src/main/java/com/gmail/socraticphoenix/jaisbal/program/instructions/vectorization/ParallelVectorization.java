@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization;
+
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
+import com.gmail.socraticphoenix.jaisbal.util.DangerousBiFunction;
+import com.gmail.socraticphoenix.plasma.base.PlasmaObject;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelVectorization extends PlasmaObject {
+    private static int threshold = 100000;
+    private static int parallelism = 1;
+    private static ForkJoinPool pool;
+
+    public static int getThreshold() {
+        return ParallelVectorization.threshold;
+    }
+
+    public static void setThreshold(int threshold) {
+        ParallelVectorization.threshold = threshold;
+    }
+
+    public static int getParallelism() {
+        return ParallelVectorization.parallelism;
+    }
+
+    public static synchronized void setParallelism(int parallelism) {
+        if (ParallelVectorization.parallelism != parallelism && ParallelVectorization.pool != null) {
+            ParallelVectorization.pool.shutdown();
+            ParallelVectorization.pool = null;
+        }
+        ParallelVectorization.parallelism = parallelism;
+    }
+
+    public static boolean isParallel(int length) {
+        return ParallelVectorization.parallelism > 1 && length >= ParallelVectorization.threshold;
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (ParallelVectorization.pool == null) {
+            ParallelVectorization.pool = new ForkJoinPool(ParallelVectorization.parallelism);
+        }
+        return ParallelVectorization.pool;
+    }
+
+    //Maps every element with a kernel that has no side effects, each worker gets a scratch stack. If an element fails, the elements from
+    //the first failure on are mapped again on the calling thread with the real stack, so the error and the stack are the same as mapping in order
+    public static CastableValue[] map(CastableValue array, ValueStack stack, DangerousBiFunction<ValueStack, CastableValue, CastableValue> kernel) throws Throwable {
+        int length = ValueUtility.length(array);
+        CastableValue[] results = new CastableValue[length];
+        AtomicInteger failed = new AtomicInteger(length);
+        int leaf = Math.max(length / (ParallelVectorization.parallelism * 4), 1);
+        ParallelVectorization.getPool().invoke(new Chunk(array, results, kernel, failed, 0, length, leaf));
+        for (int i = failed.get(); i < length; i++) {
+            results[i] = kernel.apply(stack, ValueUtility.element(array, i));
+        }
+        return results;
+    }
+
+    private static class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private CastableValue array;
+        private CastableValue[] results;
+        private DangerousBiFunction<ValueStack, CastableValue, CastableValue> kernel;
+        private AtomicInteger failed;
+        private int from;
+        private int to;
+        private int leaf;
+
+        public Chunk(CastableValue array, CastableValue[] results, DangerousBiFunction<ValueStack, CastableValue, CastableValue> kernel, AtomicInteger failed, int from, int to, int leaf) {
+            this.array = array;
+            this.results = results;
+            this.kernel = kernel;
+            this.failed = failed;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > this.leaf) {
+                int middle = (this.from + this.to) >>> 1;
+                Chunk.invokeAll(new Chunk(this.array, this.results, this.kernel, this.failed, this.from, middle, this.leaf), new Chunk(this.array, this.results, this.kernel, this.failed, middle, this.to, this.leaf));
+            } else {
+                ValueStack scratch = new ValueStack();
+                for (int i = this.from; i < this.to && i < this.failed.get(); i++) {
+                    try {
+                        this.results[i] = this.kernel.apply(scratch, ValueUtility.element(this.array, i));
+                    } catch (Throwable e) {
+                        this.failed.accumulateAndGet(i, Math::min);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
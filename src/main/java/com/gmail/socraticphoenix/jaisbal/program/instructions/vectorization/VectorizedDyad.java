@@ -22,6 +22,9 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization;
 
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.PackedArray;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
@@ -30,51 +33,69 @@ import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
 public class VectorizedDyad implements DangerousFunction<FunctionContext, State> {
     private DangerousFunction<FunctionContext, State> function;
+    private SyntheticFunction kernel;
 
     public VectorizedDyad(DangerousFunction<FunctionContext, State> function) {
         this.function = function;
+        if (function instanceof SyntheticFunction && ((SyntheticFunction) function).isDyad()) {
+            this.kernel = (SyntheticFunction) function;
+        }
     }
 
     @Override
     public State apply(FunctionContext context) throws Throwable {
         Program.checkUnderflow(2, context);
-        CastableValue top = context.getStack().pop();
-        CastableValue next = context.getStack().pop();
-        if(top.getValueAs(CastableValue[].class).isPresent() || next.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] vector;
+        //Operands are only popped here when vectorizing, scalars are left for the function itself
+        CastableValue top = context.getStack().peek(0);
+        CastableValue next = context.getStack().peek(1);
+        if(ValueUtility.isArray(top) || ValueUtility.isArray(next)) {
+            context.getStack().truncate(context.getStack().size() - 2);
+            CastableValue vector;
             CastableValue scalar;
             boolean first;
-            if (top.getValueAs(CastableValue[].class).isPresent()) {
-                vector = top.getValueAs(CastableValue[].class).get();
+            if (ValueUtility.isArray(top)) {
+                vector = top;
                 scalar = next;
                 first = true;
             } else {
-                vector = next.getValueAs(CastableValue[].class).get();
+                vector = next;
                 scalar = top;
                 first = false;
             }
-            CastableValue[] newArray = new CastableValue[vector.length];
-            for (int i = 0; i < vector.length; i++) {
-                if(first) {
-                    context.getStack().push(scalar);
-                    context.getStack().push(vector[i]);
+            //Packed arrays are read without boxing them, and the result is packed again if it can be
+            boolean packed = ValueUtility.isPacked(vector);
+            int length = ValueUtility.length(vector);
+            if (this.kernel != null && this.kernel.isPure() && ParallelVectorization.isParallel(length)) {
+                CastableValue[] newArray = ParallelVectorization.map(vector, context.getStack(), (stack, element) -> this.kernel.applyDyad(stack, element, scalar));
+                context.getStack().push(packed ? PackedArray.pack(newArray) : CastableValue.of(newArray));
+                return State.NORMAL;
+            }
+            CastableValue[] newArray = new CastableValue[length];
+            for (int i = 0; i < length; i++) {
+                CastableValue element = ValueUtility.element(vector, i);
+                if (this.kernel != null) {
+                    //The element is always the top operand, as below
+                    newArray[i] = this.kernel.applyDyad(context.getStack(), element, scalar);
                 } else {
-                    context.getStack().push(scalar);
-                    context.getStack().push(vector[i]);
-                }
-                State state = this.function.apply(context);
-                if(state.isTransmit()) {
-                    return state;
-                }
+                    if(first) {
+                        context.getStack().push(scalar);
+                        context.getStack().push(element);
+                    } else {
+                        context.getStack().push(scalar);
+                        context.getStack().push(element);
+                    }
+                    State state = this.function.apply(context);
+                    if(state.isTransmit()) {
+                        return state;
+                    }
 
-                Program.checkUnderflow(1, context);
-                newArray[i] = context.getStack().pop();
+                    Program.checkUnderflow(1, context);
+                    newArray[i] = context.getStack().pop();
+                }
             }
-            context.getStack().push(CastableValue.of(newArray));
+            context.getStack().push(packed ? PackedArray.pack(newArray) : CastableValue.of(newArray));
             return State.NORMAL;
         } else {
-            context.getStack().push(next);
-            context.getStack().push(top);
             return this.function.apply(context);
         }
     }
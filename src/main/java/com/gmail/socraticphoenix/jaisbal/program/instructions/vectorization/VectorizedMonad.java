@@ -22,6 +22,9 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization;
 
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.PackedArray;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.SyntheticFunction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
@@ -30,31 +33,46 @@ import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
 
 public class VectorizedMonad implements DangerousFunction<FunctionContext, State> {
     private DangerousFunction<FunctionContext, State> function;
+    private SyntheticFunction kernel;
 
     public VectorizedMonad(DangerousFunction<FunctionContext, State> function) {
         this.function = function;
+        if (function instanceof SyntheticFunction && ((SyntheticFunction) function).isMonad()) {
+            this.kernel = (SyntheticFunction) function;
+        }
     }
 
     @Override
     public State apply(FunctionContext context) throws Throwable {
         Program.checkUnderflow(1, context);
-        CastableValue top = context.getStack().pop();
-        if(top.getValueAs(CastableValue[].class).isPresent()) {
-            CastableValue[] array = top.getValueAs(CastableValue[].class).get();
-            CastableValue[] newArray = new CastableValue[array.length];
-            for (int i = 0; i < array.length; i++) {
-                context.getStack().push(array[i]);
-                State state = this.function.apply(context);
-                if(state.isTransmit()) {
-                    return state;
+        CastableValue top = context.getStack().peek();
+        if(ValueUtility.isArray(top)) {
+            context.getStack().pop();
+            //Packed arrays are read without boxing them, and the result is packed again if it can be
+            boolean packed = ValueUtility.isPacked(top);
+            int length = ValueUtility.length(top);
+            if (this.kernel != null && this.kernel.isPure() && ParallelVectorization.isParallel(length)) {
+                CastableValue[] newArray = ParallelVectorization.map(top, context.getStack(), (stack, element) -> this.kernel.applyMonad(element));
+                context.getStack().push(packed ? PackedArray.pack(newArray) : CastableValue.of(newArray));
+                return State.NORMAL;
+            }
+            CastableValue[] newArray = new CastableValue[length];
+            for (int i = 0; i < length; i++) {
+                if (this.kernel != null) {
+                    newArray[i] = this.kernel.applyMonad(ValueUtility.element(top, i));
+                } else {
+                    context.getStack().push(ValueUtility.element(top, i));
+                    State state = this.function.apply(context);
+                    if(state.isTransmit()) {
+                        return state;
+                    }
+                    Program.checkUnderflow(1, context);
+                    newArray[i] = context.getStack().pop();
                 }
-                Program.checkUnderflow(1, context);
-                newArray[i] = context.getStack().pop();
             }
-            context.getStack().push(CastableValue.of(newArray));
+            context.getStack().push(packed ? PackedArray.pack(newArray) : CastableValue.of(newArray));
             return State.NORMAL;
         } else {
-            context.getStack().push(top);
             return this.function.apply(context);
         }
     }
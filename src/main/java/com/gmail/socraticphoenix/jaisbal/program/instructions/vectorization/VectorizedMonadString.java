@@ -22,6 +22,9 @@
  */
 package com.gmail.socraticphoenix.jaisbal.program.instructions.vectorization;
 
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.PackedArray;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.Rope;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
 import com.gmail.socraticphoenix.jaisbal.util.DangerousFunction;
 import com.gmail.socraticphoenix.jaisbal.program.Program;
 import com.gmail.socraticphoenix.jaisbal.program.State;
@@ -39,19 +42,22 @@ public class VectorizedMonadString implements DangerousFunction<FunctionContext,
     public State apply(FunctionContext context) throws Throwable {
         Program.checkUnderflow(1, context);
         CastableValue top = context.getStack().pop();
-        if(top.getValueAs(String.class).isPresent()) {
-            String s = top.getAsString().get();
-            CastableValue[] array = new CastableValue[s.length()];
-            for (int i = 0; i < s.length(); i++) {
-                array[i] = CastableValue.of(String.valueOf(s.charAt(i)));
-            }
-            context.getStack().push(CastableValue.of(array));
+        if(top.getValueAs(String.class).isPresent() || ValueUtility.raw(top) instanceof Rope) {
+            String s = ValueUtility.string(top);
+            //The string is viewed as an array of characters without copying it, and a result that's still one is joined the same way
+            PackedArray characters = PackedArray.characters(s);
+            context.getStack().push(characters == null ? CastableValue.of(new CastableValue[0]) : CastableValue.of(characters));
             State state = this.function.apply(context);
             CastableValue newTop = context.getStack().pop();
-            StringBuilder builder = new StringBuilder();
-            if (newTop.getValueAs(CastableValue[].class).isPresent()) {
-                for (CastableValue value : newTop.getValueAs(CastableValue[].class).get()) {
-                    builder.append(Program.valueToString(value));
+            Object raw = ValueUtility.raw(newTop);
+            String joined = raw instanceof PackedArray ? ((PackedArray) raw).characters() : null;
+            if (joined != null) {
+                context.getStack().push(CastableValue.of(joined));
+            } else if (ValueUtility.isArray(newTop)) {
+                StringBuilder builder = new StringBuilder();
+                int length = ValueUtility.length(newTop);
+                for (int i = 0; i < length; i++) {
+                    builder.append(Program.valueToString(ValueUtility.element(newTop, i)));
                 }
                 context.getStack().push(CastableValue.of(builder.toString()));
             } else {
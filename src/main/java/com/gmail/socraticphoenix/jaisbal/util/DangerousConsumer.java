@@ -35,7 +35,7 @@ public interface DangerousConsumer<T> {
 
     static DangerousConsumer<FunctionContext> of(Function f) {
         return context -> {
-            f.createContext().run(context.getStack());
+            f.run(context.getStack());
         };
     }
 
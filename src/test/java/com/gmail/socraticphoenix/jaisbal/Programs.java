@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal;
+
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.SecurityMonitor;
+import com.gmail.socraticphoenix.jaisbal.program.engine.Engine;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import com.gmail.socraticphoenix.jaisbal.util.StringNumberCaster;
+import com.gmail.socraticphoenix.plasma.reflection.util.PlasmaReflectionUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+//Shared setup for tests that parse and run programs the way JAISBaL#main does
+public class Programs {
+    private static boolean registered;
+
+    //Registers the instructions once, and puts every setting a test may change back to its default
+    public static synchronized void init() {
+        if (!Programs.registered) {
+            PlasmaReflectionUtil.registerCaster(new StringNumberCaster());
+            InstructionRegistry.registerDefaults();
+            Programs.registered = true;
+        }
+        InstructionRegistry.setMonitor(new SecurityMonitor(100));
+        FunctionContext.setEngine(Engine.INTERPRETER);
+        Function.setCacheSize(0);
+        JAISBaL.setIn(() -> null);
+    }
+
+    public static Program parse(String source) throws JAISBaLExecutionException {
+        return Program.parse(source);
+    }
+
+    //Everything main prints, including the stack and locals report at the end
+    public static String run(Program program) throws JAISBaLExecutionException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = JAISBaL.getOut();
+        try {
+            JAISBaL.setOut(new PrintStream(bytes, true, "UTF-8"));
+            program.run();
+        } catch (IOException e) {
+            throw new JAISBaLExecutionException("Invalid state: error while running program", e);
+        } finally {
+            JAISBaL.setOut(out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public static String run(String source) throws JAISBaLExecutionException {
+        return Programs.run(Programs.parse(source));
+    }
+
+    //The error main fails with, or null if it doesn't fail
+    public static JAISBaLExecutionException failure(Program program) {
+        try {
+            Programs.run(program);
+            return null;
+        } catch (JAISBaLExecutionException e) {
+            return e;
+        }
+    }
+
+    //The messages of the error and each of its causes, outermost first
+    public static String messages(Throwable error) {
+        StringBuilder builder = new StringBuilder();
+        while (error != null) {
+            builder.append(error.getMessage()).append(System.lineSeparator());
+            error = error.getCause();
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.engine.compiled;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.engine.BlockLayout;
+import com.gmail.socraticphoenix.jaisbal.program.engine.Engine;
+import com.gmail.socraticphoenix.jaisbal.program.function.Function;
+import com.gmail.socraticphoenix.jaisbal.program.function.FunctionContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CompiledEngineTest {
+    private static final String LOOPS = String.join("\n",
+            "#",
+            "pushnum 0",
+            "store 0",
+            "pushnum 10",
+            "for",
+            " load 0",
+            " pushnum 3",
+            " add",
+            " store 0",
+            " load 0",
+            " pushnum 20",
+            " less",
+            " break",
+            " load 0",
+            " popoutln",
+            "end",
+            "pushterm abc}",
+            "for",
+            " popoutln",
+            "end",
+            "pushnum 3",
+            "while",
+            " duplicate",
+            " popoutln",
+            " dec",
+            "end",
+            "pop",
+            "pushnum 2",
+            "dowhile",
+            " dec",
+            "end",
+            "pop",
+            "load 0",
+            "popoutln");
+
+    private static final String CONDITIONALS = String.join("\n",
+            "#",
+            "pushnum 1",
+            "ifelse",
+            " pushterm yes}",
+            " popoutln",
+            "else",
+            " pushterm no}",
+            " popoutln",
+            "end",
+            "pushnum 0",
+            "ifblock",
+            " pushterm never}",
+            " popoutln",
+            "end",
+            "pushnum 4",
+            "case 4",
+            " pushterm four}",
+            " popoutln",
+            "end",
+            "pushnum 5",
+            "while",
+            " dec",
+            " duplicate",
+            " ifelse",
+            "  duplicate",
+            "  popoutln",
+            " else",
+            "  break",
+            " end",
+            "end",
+            "pushterm after}",
+            "popoutln",
+            "break",
+            "pushterm unreachable}",
+            "popoutln");
+
+    private static final String FUNCTIONS = String.join("\n",
+            "#",
+            "(",
+            "sum:n}",
+            " load 0",
+            " ifelse",
+            "  load 0",
+            "  dec",
+            "  call sum}",
+            "  load 0",
+            "  add",
+            "  superpush",
+            " else",
+            "  pushnum 0",
+            "  superpush",
+            "  return",
+            "  pushterm unreachable}",
+            "  popoutln",
+            " end",
+            ",",
+            "down:n}",
+            " load 0",
+            " popoutln",
+            " load 0",
+            " ifblock",
+            "  load 0",
+            "  dec",
+            "  call down}",
+            " end",
+            ")",
+            "pushnum 30",
+            "call sum}",
+            "popoutln",
+            "pushnum 3",
+            "call down}");
+
+    private static final String NESTED_ERROR = String.join("\n",
+            "#",
+            "pushnum 2",
+            "for",
+            " pushnum 1",
+            " ifelse",
+            "  pushnum 1",
+            "  while",
+            "   load 7",
+            "  end",
+            " end",
+            "end");
+
+    private static final String JUMPS = String.join("\n",
+            "#",
+            "pushnum 1",
+            "jump 2",
+            "pushnum 2",
+            "popoutln");
+
+    @Before
+    public void init() {
+        Programs.init();
+    }
+
+    @Test
+    public void loopsMatchTheInterpreter() throws JAISBaLExecutionException {
+        CompiledEngineTest.compare(CompiledEngineTest.LOOPS);
+    }
+
+    @Test
+    public void conditionalsAndBreaksMatchTheInterpreter() throws JAISBaLExecutionException {
+        CompiledEngineTest.compare(CompiledEngineTest.CONDITIONALS);
+    }
+
+    @Test
+    public void callsMatchTheInterpreter() throws JAISBaLExecutionException {
+        CompiledEngineTest.compare(CompiledEngineTest.FUNCTIONS);
+    }
+
+    @Test
+    public void errorsAreWrappedByEachEnclosingBlock() throws JAISBaLExecutionException {
+        String expected = Programs.messages(Programs.failure(Programs.parse(CompiledEngineTest.NESTED_ERROR)));
+        FunctionContext.setEngine(new CompiledEngine());
+        assertEquals(expected, Programs.messages(Programs.failure(Programs.parse(CompiledEngineTest.NESTED_ERROR))));
+    }
+
+    @Test
+    public void functionsAreCompiledToClasses() throws JAISBaLExecutionException {
+        Function main = Programs.parse(CompiledEngineTest.LOOPS).getMain();
+        CompiledFunction compiled = FunctionCompiler.compile(BlockLayout.lower(main.getDecodedInstructions(), main.getBlockTable()));
+        assertNotNull(compiled);
+        assertEquals(CompiledFunction.class, compiled.getClass().getSuperclass());
+    }
+
+    @Test
+    public void jumpsFallBackToTheInterpreter() throws JAISBaLExecutionException {
+        Function main = Programs.parse(CompiledEngineTest.JUMPS).getMain();
+        assertNull(BlockLayout.lower(main.getDecodedInstructions(), main.getBlockTable()));
+        CompiledEngineTest.compare(CompiledEngineTest.JUMPS);
+    }
+
+    private static void compare(String source) throws JAISBaLExecutionException {
+        FunctionContext.setEngine(Engine.INTERPRETER);
+        String expected = Programs.run(source);
+        FunctionContext.setEngine(new CompiledEngine());
+        assertEquals(expected, Programs.run(source));
+    }
+
+}
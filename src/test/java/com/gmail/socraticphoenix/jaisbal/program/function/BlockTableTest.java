@@ -0,0 +1,237 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.Instruction;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.InstructionRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlockTableTest {
+    private static final String NESTED = String.join("\n",
+            "#",
+            "pushnum 3",
+            "for",
+            " pushnum 2",
+            " while",
+            "  ifelse",
+            "   pushnum 1",
+            "   ifblock",
+            "    pushnum 5",
+            "   end",
+            "  else",
+            "   pushnum 0",
+            "   ifelse",
+            "    pushnum 2",
+            "   else",
+            "    pushnum 3",
+            "    for",
+            "     pop",
+            "    end",
+            "   end",
+            "  end",
+            "  pushnum 0",
+            " end",
+            " dowhile",
+            "  pushnum 0",
+            " end",
+            "end",
+            "pushnum 4",
+            "case 4",
+            " pushterm four}",
+            " popoutln",
+            "end",
+            "pushterm a}",
+            "caset a}",
+            " ifelse",
+            "  pushnum 1",
+            " end",
+            "end",
+            "pushnum 1",
+            "pushnum 1",
+            "cases",
+            " pushnum 2",
+            "end");
+
+    private static final String FUNCTIONS = String.join("\n",
+            "#",
+            "(",
+            "f:n}",
+            " load 0",
+            " ifelse",
+            "  load 0",
+            "  for",
+            "   ifelse",
+            "    pushnum 1",
+            "   else",
+            "    pushnum 2",
+            "   end",
+            "  end",
+            " else",
+            "  pushnum 2",
+            "  while",
+            "   pop",
+            "   pushnum 0",
+            "  end",
+            " end",
+            ")",
+            "pushnum 2",
+            "call f}");
+
+    private static final String UNCLOSED = String.join("\n",
+            "#",
+            "pushnum 2",
+            "for",
+            " pushnum 1",
+            " ifelse",
+            "  pushnum 2",
+            " else",
+            "  pushnum 3",
+            "  while",
+            "   pop");
+
+    private static final String EXTRA_ENDS = String.join("\n",
+            "#",
+            "end",
+            "pushnum 1",
+            "ifblock",
+            " pushnum 1",
+            "end",
+            "end",
+            "else",
+            "pushnum 1",
+            "for",
+            "end");
+
+    @Before
+    public void init() {
+        Programs.init();
+    }
+
+    @Test
+    public void nestedLoopsAndConditionals() throws JAISBaLExecutionException {
+        BlockTableTest.compare(Programs.parse(BlockTableTest.NESTED));
+    }
+
+    @Test
+    public void blocksInsideFunctions() throws JAISBaLExecutionException {
+        BlockTableTest.compare(Programs.parse(BlockTableTest.FUNCTIONS));
+    }
+
+    @Test
+    public void unclosedBlocksEndAtTheEndOfTheFunction() throws JAISBaLExecutionException {
+        Program program = Programs.parse(BlockTableTest.UNCLOSED);
+        BlockTableTest.compare(program);
+        int length = program.getMain().getInstructions().size();
+        assertEquals(length, program.getMain().getBlockTable().getEnd(1));
+    }
+
+    @Test
+    public void strayEndsAndElses() throws JAISBaLExecutionException {
+        BlockTableTest.compare(Programs.parse(BlockTableTest.EXTRA_ENDS));
+    }
+
+    //Checks every block lookup the control flow instructions make against the linear scans they used before the block table
+    private static void compare(Program program) throws JAISBaLExecutionException {
+        int checked = 0;
+        for (Function function : program.getFunctions().values()) {
+            if (function.getName().contains(".")) {
+                continue;
+            }
+            List<String> code = function.getInstructions();
+            FunctionContext context = function.createContext();
+            for (int i = 0; i < code.size(); i++) {
+                Instruction entry = InstructionRegistry.getInstruction(BlockTableTest.name(code.get(i))).orElse(null);
+                if (entry == null) {
+                    continue;
+                }
+                String alias = entry.getMainAlias();
+                String where = function.getName() + " at " + i + " (" + alias + ")";
+                context.setCurrent(i + 1);
+                switch (alias) {
+                    case "for":
+                    case "while":
+                    case "dowhile":
+                    case "ifblock":
+                    case "case":
+                        assertEquals(where, BlockTableTest.scan(code, i, alias, null, "end", 0, false), context.subsetIndex(alias, "end"));
+                        checked++;
+                        break;
+                    case "caset":
+                    case "cases":
+                        assertEquals(where, BlockTableTest.scan(code, i, "caset", null, "end", 0, false), context.subsetIndex("caset", "end"));
+                        checked++;
+                        break;
+                    case "ifelse":
+                        assertEquals(where, BlockTableTest.scan(code, i, "ifelse", "else", "end", 0, true), context.subsetIndexDuplexMiddle("ifelse", "else", "end"));
+                        assertEquals(where, BlockTableTest.scan(code, i, "ifelse", "else", "end", 0, false), context.subsetIndexDuplexEnd("ifelse", "else", "end"));
+                        checked++;
+                        break;
+                    case "else":
+                        assertEquals(where, BlockTableTest.scan(code, i + 1, "ifelse", "else", "end", 1, true), context.subsetIndexDuplexMiddle("ifelse", "else", "end", 1, 0));
+                        checked++;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        assertTrue("no blocks were checked", checked > 0);
+    }
+
+    //The scans subsetIndex, subsetIndexDuplexMiddle (stopping at the middle) and subsetIndexDuplexEnd made before the block table
+    private static int scan(List<String> code, int from, String begin, String middle, String end, int z, boolean stopAtMiddle) {
+        int i;
+        for (i = from; i < code.size(); i++) {
+            Instruction entry = InstructionRegistry.getInstruction(BlockTableTest.name(code.get(i))).orElse(null);
+            if (entry != null) {
+                boolean isMiddle = middle != null && entry.isName(middle);
+                if ((entry.isName(begin) || InstructionRegistry.getBlockStarts().contains(entry.getMainAlias())) && !isMiddle) {
+                    z++;
+                }
+
+                if ((entry.isName(end) || InstructionRegistry.getBlockEnds().contains(entry.getMainAlias())) && !isMiddle) {
+                    z--;
+                }
+
+                if (z == 0 || (stopAtMiddle && z == 1 && isMiddle)) {
+                    break;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static String name(String instruction) {
+        return instruction.split(" ", 2)[0];
+    }
+
+}
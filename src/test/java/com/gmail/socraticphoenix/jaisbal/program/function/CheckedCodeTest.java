@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.Rope;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+import com.gmail.socraticphoenix.plasma.string.PlasmaStringUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CheckedCodeTest {
+    private static final String JOINS = String.join("\n",
+            "#",
+            "(",
+            "relative:n}",
+            " pushnum 1",
+            " pushnum 0",
+            " if",
+            " jump 3",
+            " pushnum 2",
+            " pushnum 3",
+            " add",
+            ",",
+            "index:n}",
+            " pushnum 1",
+            " pushnum 0",
+            " if",
+            " jumpindex 6",
+            " pushnum 2",
+            " pushnum 3",
+            " add",
+            ",",
+            "skip:n}",
+            " pushnum 1",
+            " pushnum 2",
+            " pushnum 1",
+            " if",
+            " pushnum 5",
+            " add",
+            " superpush",
+            ",",
+            "loop:n}",
+            " pushnum 1",
+            " pushnum 2",
+            " pushnum 2",
+            " for",
+            "  add",
+            "  duplicate",
+            " end",
+            " superpush",
+            ",",
+            "unknown:?}",
+            " load 0",
+            " sqrt",
+            ")",
+            "pushnum 0",
+            "call skip}",
+            "popoutln",
+            "pushnum 0",
+            "call loop}",
+            "popoutln");
+
+    private static final String ROPE = String.join("\n",
+            "#",
+            "pushterm " + PlasmaStringUtil.indent(Rope.THRESHOLD, "a") + "}",
+            "pushterm " + PlasmaStringUtil.indent(Rope.THRESHOLD, "b") + "}",
+            "concat",
+            "toupper",
+            "popoutln");
+
+    private Program program;
+
+    @Before
+    public void init() throws JAISBaLExecutionException {
+        Programs.init();
+        this.program = Programs.parse(CheckedCodeTest.JOINS);
+    }
+
+    @Test
+    public void jumpTargetsAreJoins() throws JAISBaLExecutionException {
+        for (String name : new String[] {"relative", "index"}) {
+            DecodedInstruction[] code = this.code(name);
+            //The two pushes before the add would prove it, but it is also a jump target, where only one number is on the stack
+            assertFalse(name, code[6].isChecked());
+        }
+    }
+
+    @Test
+    public void skipTargetsAreJoins() throws JAISBaLExecutionException {
+        DecodedInstruction[] code = this.code("skip");
+        assertTrue(code[3].isChecked());
+        assertTrue(code[4].isChecked());
+        assertFalse(code[5].isChecked());
+    }
+
+    @Test
+    public void loopHeadsAreJoins() throws JAISBaLExecutionException {
+        DecodedInstruction[] code = this.code("loop");
+        //The first add sees the values pushed before the loop, the second time around it sees the previous duplicate
+        assertFalse(code[4].isChecked());
+        assertTrue(code[5].isChecked());
+        String line = System.lineSeparator();
+        assertTrue(Programs.run(this.program).startsWith("3" + line + "6" + line));
+    }
+
+    @Test
+    public void undecidableSitesKeepTheirChecks() throws JAISBaLExecutionException {
+        for (String name : new String[] {"relative", "index"}) {
+            JAISBaLExecutionException error = this.failure(name, CastableValue.of(BigDecimal.ZERO));
+            assertNotNull(name, error);
+            assertEquals(name, "Invalid State: stack underflow, required at least 2 parameter(s), but only 1 were/was available on the stack", error.getCause().getMessage());
+        }
+
+        assertFalse(this.code("unknown")[1].isChecked());
+        JAISBaLExecutionException error = this.failure("unknown", CastableValue.of("a"));
+        assertNotNull(error);
+        assertEquals("Invalid value: a cannot be converted to number", error.getCause().getMessage());
+    }
+
+    @Test
+    public void stringOperationsAcceptRopes() throws JAISBaLExecutionException {
+        Program checked = CheckedCodeTest.unfold(Programs.parse(CheckedCodeTest.ROPE));
+        assertTrue(checked.getMain().getDecodedInstructions()[3].isChecked());
+        Program unchecked = CheckedCodeTest.unfold(Programs.parse(CheckedCodeTest.ROPE));
+        for (DecodedInstruction instruction : unchecked.getMain().getDecodedInstructions()) {
+            instruction.setChecked(false);
+        }
+
+        String output = Programs.run(checked);
+        assertEquals(Programs.run(unchecked), output);
+        assertTrue(output.contains(PlasmaStringUtil.indent(Rope.THRESHOLD, "A")));
+    }
+
+    private Function function(String name) {
+        return this.program.getFunction(name).get();
+    }
+
+    private DecodedInstruction[] code(String name) {
+        return this.function(name).getDecodedInstructions();
+    }
+
+    private JAISBaLExecutionException failure(String name, CastableValue argument) {
+        ValueStack stack = new ValueStack();
+        stack.push(argument);
+        try {
+            this.function(name).run(stack);
+            return null;
+        } catch (JAISBaLExecutionException e) {
+            return e;
+        }
+    }
+
+    //Without folded runs, so the instructions run one at a time
+    private static Program unfold(Program program) {
+        for (DecodedInstruction instruction : program.getMain().getDecodedInstructions()) {
+            instruction.setFused(null);
+        }
+        return program;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ConstantFoldingTest {
+    private static final String CONSTANTS = String.join("\n",
+            "#",
+            "pushnum 10",
+            "pushnum 3",
+            "mul",
+            "popoutln",
+            "pushnum 7",
+            "duplicate",
+            "mul",
+            "pushnum 2",
+            "swap",
+            "sub",
+            "popoutln",
+            "pushterm abc}",
+            "toupper",
+            "popoutln",
+            "pushnum 4",
+            "pushnum 6",
+            "max",
+            "pushnum 9",
+            "sqrt",
+            "popoutln",
+            "popoutln");
+
+    //A constant prefix that folds, followed by a bad cast that has to fail where it is
+    private static final String BAD_CAST = String.join("\n",
+            "#",
+            "pushnum 2",
+            "pushnum 3",
+            "add",
+            "pushterm a}",
+            "sqrt",
+            "popoutln");
+
+    private static final String UNDERFLOW = String.join("\n",
+            "#",
+            "(",
+            "under:n}",
+            " pushnum 1",
+            " add",
+            ")",
+            "pushnum 5",
+            "call under}");
+
+    @Before
+    public void init() {
+        Programs.init();
+    }
+
+    @Test
+    public void foldedSequencesPrintTheSameOutput() throws JAISBaLExecutionException {
+        Program folded = Programs.parse(ConstantFoldingTest.CONSTANTS);
+        DecodedInstruction[] code = folded.getMain().getDecodedInstructions();
+        assertEquals(3, code[0].getFused().length());
+        assertEquals(6, code[4].getFused().length());
+        assertEquals(2, code[11].getFused().length());
+        assertEquals(5, code[14].getFused().length());
+
+        Program unfolded = ConstantFoldingTest.unfold(Programs.parse(ConstantFoldingTest.CONSTANTS));
+        assertEquals(Programs.run(unfolded), Programs.run(folded));
+    }
+
+    @Test
+    public void badCastsStayUnfolded() throws JAISBaLExecutionException {
+        Program program = Programs.parse(ConstantFoldingTest.BAD_CAST);
+        DecodedInstruction[] code = program.getMain().getDecodedInstructions();
+        assertEquals(4, code[0].getFused().length());
+        assertNull(code[4].getFused());
+
+        JAISBaLExecutionException error = Programs.failure(program);
+        assertNotNull(error);
+        assertEquals(Programs.messages(Programs.failure(ConstantFoldingTest.unfold(Programs.parse(ConstantFoldingTest.BAD_CAST)))), Programs.messages(error));
+        assertEquals("Invalid state: error while executing instruction :sqrt (main alias: sqrt) (current index: 4)", error.getMessage());
+    }
+
+    @Test
+    public void underflowsStayUnfolded() throws JAISBaLExecutionException {
+        Program program = Programs.parse(ConstantFoldingTest.UNDERFLOW);
+        Function under = program.getFunction("under").get();
+        //Only the push/operation superinstruction, which falls back to the plain instructions when the stack is too small
+        assertEquals(2, under.getDecodedInstructions()[0].getFused().length());
+
+        JAISBaLExecutionException error = Programs.failure(program);
+        assertNotNull(error);
+        assertEquals(Programs.messages(Programs.failure(ConstantFoldingTest.unfold(Programs.parse(ConstantFoldingTest.UNDERFLOW)))), Programs.messages(error));
+        assertEquals("Invalid state: error while executing instruction :add (main alias: add) (current index: 1)", error.getCause().getMessage());
+    }
+
+    //The same program with every folded or fused run taken out again
+    private static Program unfold(Program program) {
+        ConstantFoldingTest.unfold(program.getMain());
+        program.getFunctions().values().forEach(ConstantFoldingTest::unfold);
+        program.getSnippets().values().forEach(ConstantFoldingTest::unfold);
+        return program;
+    }
+
+    private static void unfold(Function function) {
+        for (DecodedInstruction instruction : function.getDecodedInstructions()) {
+            instruction.setFused(null);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.ValueStack;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.util.ValueUtility;
+import com.gmail.socraticphoenix.plasma.reflection.CastableValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FunctionCacheTest {
+    private static final String FUNCTIONS = String.join("\n",
+            "#",
+            "(",
+            "square:n}",
+            " load 0",
+            " duplicate",
+            " mul",
+            " superpush",
+            ",",
+            "random:n}",
+            " randi",
+            " superpush",
+            ",",
+            "library:n}",
+            " import nothing}",
+            ",",
+            "print:n}",
+            " load 0",
+            " popoutln",
+            ",",
+            "auxiliary:n}",
+            " aux 0",
+            ",",
+            "indirect:n}",
+            " load 0",
+            " call print}",
+            ",",
+            "array:n}",
+            " newarray 2",
+            " superpush",
+            ",",
+            "first:a?}",
+            " pushnum 1",
+            " superpush",
+            ")",
+            "pushnum 2",
+            "call print}",
+            "pushnum 2",
+            "call print}");
+
+    private Program program;
+
+    @Before
+    public void init() throws JAISBaLExecutionException {
+        Programs.init();
+        Function.setCacheSize(4);
+        this.program = Programs.parse(FunctionCacheTest.FUNCTIONS);
+    }
+
+    @Test
+    public void repeatedCallsHitTheCache() throws JAISBaLExecutionException {
+        Function square = this.function("square");
+        assertTrue(square.isPure());
+        List<Object> key = FunctionCache.key(FunctionCacheTest.stack(3), 1);
+        assertNull(square.getCache().get(key));
+
+        ValueStack stack = FunctionCacheTest.stack(3);
+        square.run(stack);
+        assertEquals(1, stack.size());
+        assertEquals(9, ValueUtility.number(stack.peek()).intValue());
+        assertNotNull(square.getCache().get(key));
+
+        //A hit returns the remembered result without running the function again
+        square.getCache().put(key, Collections.singletonList(CastableValue.of(new BigDecimal(100))));
+        stack = FunctionCacheTest.stack(3);
+        square.run(stack);
+        assertEquals(100, ValueUtility.number(stack.peek()).intValue());
+
+        //Other arguments miss and run the function
+        stack = FunctionCacheTest.stack(4);
+        square.run(stack);
+        assertEquals(16, ValueUtility.number(stack.peek()).intValue());
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        FunctionCache cache = new FunctionCache(2);
+        List<Object> a = FunctionCacheTest.key(1);
+        List<Object> b = FunctionCacheTest.key(2);
+        List<Object> c = FunctionCacheTest.key(3);
+        cache.put(a, Collections.singletonList(CastableValue.of(new BigDecimal(1))));
+        cache.put(b, Collections.singletonList(CastableValue.of(new BigDecimal(4))));
+        assertNotNull(cache.get(a));
+        cache.put(c, Collections.singletonList(CastableValue.of(new BigDecimal(9))));
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+    }
+
+    @Test
+    public void impureFunctionsAreNeverCached() throws JAISBaLExecutionException {
+        for (String name : new String[] {"random", "library", "print", "auxiliary", "indirect"}) {
+            Function function = this.function(name);
+            assertFalse(name, function.isPure());
+            assertNull(name, function.getCache());
+        }
+        String line = "2" + System.lineSeparator();
+        assertTrue(Programs.run(this.program).startsWith(line + line));
+    }
+
+    @Test
+    public void arraysBypassTheCache() throws JAISBaLExecutionException {
+        Function array = this.function("array");
+        assertTrue(array.isPure());
+        List<Object> key = FunctionCache.key(FunctionCacheTest.stack(3), 1);
+        array.run(FunctionCacheTest.stack(3));
+        assertNull(array.getCache().get(key));
+
+        ValueStack stack = new ValueStack();
+        stack.push(new CastableValue(new CastableValue[] {CastableValue.of(new BigDecimal(1))}));
+        assertNull(FunctionCache.key(stack, 1));
+        this.function("first").run(stack);
+        assertEquals(1, ValueUtility.number(stack.peek()).intValue());
+    }
+
+    private Function function(String name) {
+        return this.program.getFunction(name).get();
+    }
+
+    private static ValueStack stack(int argument) {
+        ValueStack stack = new ValueStack();
+        stack.push(CastableValue.of(new BigDecimal(argument)));
+        return stack;
+    }
+
+    private static List<Object> key(int argument) {
+        return FunctionCache.key(FunctionCacheTest.stack(argument), 1);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 socraticphoenix@gmail.com
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * @author Socratic_Phoenix (socraticphoenix@gmail.com)
+ */
+package com.gmail.socraticphoenix.jaisbal.program.function;
+
+import com.gmail.socraticphoenix.jaisbal.Programs;
+import com.gmail.socraticphoenix.jaisbal.program.JAISBaLExecutionException;
+import com.gmail.socraticphoenix.jaisbal.program.Program;
+import com.gmail.socraticphoenix.jaisbal.program.instructions.instructions.FundamentalInstructions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TailCallTest {
+    private static final int DEPTH = 1000000;
+    private static final long STACK_SIZE = 512 * 1024;
+
+    private static final String TAIL = String.join("\n",
+            "#",
+            "(",
+            "down:n}",
+            " load 0",
+            " ifelse",
+            "  load 0",
+            "  dec",
+            "  call down}",
+            " else",
+            "  pushterm done}",
+            "  popoutln",
+            " end",
+            ")",
+            "pushnum " + TailCallTest.DEPTH,
+            "call down}");
+
+    //The same function, except the recursive call is followed by work in the caller's frame
+    private static final String NOT_TAIL = String.join("\n",
+            "#",
+            "(",
+            "down:n}",
+            " load 0",
+            " ifelse",
+            "  load 0",
+            "  dec",
+            "  call down}",
+            "  pushnum 0",
+            "  pop",
+            " else",
+            "  pushterm done}",
+            "  popoutln",
+            " end",
+            ")",
+            "pushnum " + TailCallTest.DEPTH,
+            "call down}");
+
+    private static final String LOOP = String.join("\n",
+            "#",
+            "(",
+            "twice:n}",
+            " load 0",
+            " pushnum 2",
+            " mul",
+            " superpush",
+            ",",
+            "loop:n}",
+            " pushnum 7",
+            " store 1",
+            " load 0",
+            " for",
+            "  load 1",
+            "  call twice}",
+            " end",
+            " load 1",
+            " popoutln",
+            " pushterm frame kept}",
+            " popoutln",
+            ")",
+            "pushnum 3",
+            "call loop}");
+
+    @Before
+    public void init() {
+        Programs.init();
+    }
+
+    @Test
+    public void selfRecursionRunsInConstantStack() throws Throwable {
+        Program program = Programs.parse(TailCallTest.TAIL);
+        assertTrue(TailCallTest.calls(program.getFunction("down").get()).allMatch(DecodedInstruction::isTail));
+        assertTrue(TailCallTest.deep(program).startsWith("done"));
+    }
+
+    @Test
+    public void theSameRecursionOverflowsWithoutATailCall() throws Throwable {
+        Program program = Programs.parse(TailCallTest.NOT_TAIL);
+        assertFalse(TailCallTest.calls(program.getFunction("down").get()).anyMatch(DecodedInstruction::isTail));
+        JAISBaLExecutionException error = null;
+        try {
+            TailCallTest.deep(program);
+        } catch (JAISBaLExecutionException e) {
+            error = e;
+        }
+        assertNotNull(error);
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause instanceof StackOverflowError);
+    }
+
+    @Test
+    public void callsInsideALoopKeepTheirFrame() throws JAISBaLExecutionException {
+        Program program = Programs.parse(TailCallTest.LOOP);
+        assertFalse(TailCallTest.calls(program.getFunction("loop").get()).anyMatch(DecodedInstruction::isTail));
+        String output = Programs.run(program);
+        assertTrue(output.startsWith("7" + System.lineSeparator() + "frame kept" + System.lineSeparator()));
+    }
+
+    private static Stream<DecodedInstruction> calls(Function function) {
+        return Arrays.stream(function.getDecodedInstructions()).filter(d -> d.getInstruction() == FundamentalInstructions.FUNCTION);
+    }
+
+    //Runs the program on a thread with a fixed, small stack, so the result doesn't depend on how the tests are launched
+    private static String deep(Program program) throws Throwable {
+        AtomicReference<String> output = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                output.set(Programs.run(program));
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        }, "deep", TailCallTest.STACK_SIZE);
+        thread.start();
+        thread.join();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return output.get();
+    }
+
+}